@@ -1,36 +1,34 @@
-import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
 
 /**
  * A class representing shared characteristics of animals.
+ * An animal's changing state is kept in its slot of the field's PopulationStore;
+ * the animal object itself only says where to find it.
  *
  * @author David J. Barnes and Michael Kölling and Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
  * @version 2022.03.01
  */
 public abstract class Animal {
-    private boolean isAlive; // Whether the animal is alive or not.
-    private Field field; // The field an animal exists on
-    private Location location; // The animal's position in the field.
-    private boolean gender;  // The animal's gender, true is female, false is male
-    private int age; //The animal's age
-    private int nutritionalValue; // The nutritional value an animal provides when eaten
-    private boolean isDiseased; // Whether an animal is diseased
+    private final PopulationStore population; // The store holding the animal's state
+    private final int slot; // The animal's slot in the store
+    protected final SpeciesProfile profile; // The characteristics shared by the animal's species
 
-    private final Random rand = new Random();
-    protected PropertiesFile file = new PropertiesFile();
+    // Scratch arrays for neighbourhood queries, reused so that looking around allocates nothing.
+    private static final ThreadLocal<int[]> adjacentCells = ThreadLocal.withInitial(() -> new int[Field.MAX_ADJACENT]);
+    private static final ThreadLocal<int[]> freeCells = ThreadLocal.withInitial(() -> new int[Field.MAX_ADJACENT]);
 
     /**
      * Create a new animal at location in field.
      *
+     * @param profile The characteristics of the animal's species.
      * @param field The field currently occupied.
-     * @param location The location within the field.
+     * @param cell The index of the cell within the field.
      */
-    public Animal(Field field, Location location) {
-        isAlive = true;
-        this.field = field;
-        setLocation(location);
-        setIsDiseased(false);
+    public Animal(SpeciesProfile profile, Field field, int cell) {
+        this.profile = profile;
+        population = field.getPopulation();
+        slot = population.allocate(profile.getSpecies());
+        setCell(cell);
     }
 
     /**
@@ -63,7 +61,7 @@ public abstract class Animal {
      */
     protected boolean isAlive()
     {
-        return isAlive;
+        return population.isAlive(slot);
     }
 
     /**
@@ -71,20 +69,50 @@ public abstract class Animal {
      * It is removed from the field.
      */
     protected void setDead() {
-        isAlive = false;
-        if(location != null) {
-            field.clear(location);
-            location = null;
-            field = null;
+        population.setDead(slot);
+        int cell = population.getCell(slot);
+        if(cell >= 0) {
+            population.getField().clear(cell);
+            population.setCell(slot, -1);
+        }
+    }
+
+    /**
+     * Bring a dead animal back as a newborn in the given cell, reusing the object and its slot.
+     * Subclasses set up the rest of a newborn's state after calling this.
+     * @param cell The index of the newborn's cell.
+     */
+    protected void reborn(int cell) {
+        population.revive(slot);
+        setCell(cell);
+    }
+
+    /**
+     * Hand the animal back to its store once it has died and been dropped from the simulation,
+     * so that a birth of its species can reuse it. The caller must not use the animal afterwards.
+     * @throws IllegalStateException if the animal is still alive.
+     */
+    void recycle() {
+        if(isAlive() || getCell() >= 0) {
+            throw new IllegalStateException("Only a dead animal can be recycled");
+        }
+        // Only the species' own class is reused, as that is what its births ask for.
+        if(getClass() != getSpecies().getEntityClass() || !population.recycle(this, getSpecies())) {
+            population.release(slot);
         }
     }
 
     /**
      * Return the animal's location.
-     * @return The animal's location.
+     * This creates a new Location; getCell is cheaper while the simulation runs.
+     * @return The animal's location, or null if it has died.
      */
     protected Location getLocation() {
-        return location;
+        int cell = getCell();
+        if(cell < 0) {
+            return null;
+        }
+        return population.getField().locationOf(cell);
     }
 
     /**
@@ -92,19 +120,74 @@ public abstract class Animal {
      * @param newLocation The animal's new location.
      */
     protected void setLocation(Location newLocation) {
-        if(location != null) {
-            field.clear(location);
+        setCell(population.getField().cellOf(newLocation.getRow(), newLocation.getCol()));
+    }
+
+    /**
+     * Return the index of the animal's cell in the field.
+     * @return The animal's cell, or -1 if it has died.
+     */
+    protected int getCell() {
+        return population.getCell(slot);
+    }
+
+    /**
+     * Move the animal to the given cell of its field.
+     * @param newCell The index of the animal's new cell.
+     */
+    protected void setCell(int newCell) {
+        Field field = population.getField();
+        int cell = population.getCell(slot);
+        if(cell >= 0) {
+            field.clear(cell);
+        }
+        population.setCell(slot, newCell);
+        field.place(this, newCell, profile.getSpecies());
+        if(getIsDiseased()) {
+            field.setDiseased(newCell, true);
         }
-        location = newLocation;
-        field.place(this, newLocation);
     }
 
     /**
      * Return the animal's field.
-     * @return The animal's field.
+     * @return The animal's field, or null if it has died.
      */
     protected Field getField() {
-        return field;
+        return population.getCell(slot) >= 0 ? population.getField() : null;
+    }
+
+    /**
+     * Return the store holding the animal's state.
+     * @return The animal's population store.
+     */
+    protected PopulationStore getPopulation() {
+        return population;
+    }
+
+    /**
+     * Return the animal's slot in its population store.
+     * @return The animal's slot.
+     */
+    protected int getSlot() {
+        return slot;
+    }
+
+    /**
+     * Return a reusable array for the cells adjacent to the animal.
+     * Its contents are only valid until the next call on the same thread.
+     * @return An array of Field.MAX_ADJACENT cell indices.
+     */
+    protected static int[] getAdjacentBuffer() {
+        return adjacentCells.get();
+    }
+
+    /**
+     * Return a reusable array for the free cells adjacent to the animal.
+     * Its contents are only valid until the next call on the same thread.
+     * @return An array of Field.MAX_ADJACENT cell indices.
+     */
+    protected static int[] getFreeBuffer() {
+        return freeCells.get();
     }
 
     /**
@@ -112,7 +195,7 @@ public abstract class Animal {
      * @return The animal's gender
      */
     protected boolean getGender(){
-        return gender;
+        return population.isFemale(slot);
     }
 
     /**
@@ -120,7 +203,7 @@ public abstract class Animal {
      * @param gender The animal's assigned gender
      */
     protected void setGender(boolean gender){
-        this.gender = gender;
+        population.setFemale(slot, gender);
     }
 
     /**
@@ -128,7 +211,7 @@ public abstract class Animal {
      * @param age The value the animal's age will be set as
      */
     protected void setAge(int age){
-        this.age = age;
+        population.setAge(slot, age);
     }
 
     /**
@@ -136,7 +219,7 @@ public abstract class Animal {
      * @return the animal's age
      */
     protected int getAge(){
-        return age;
+        return population.getAge(slot);
     }
 
     /**
@@ -144,23 +227,35 @@ public abstract class Animal {
      * @return the animal's nutritional value
      */
     protected int getNutritionalValue(){
-        return nutritionalValue;
+        return profile.getNutritionalValue();
+    }
+
+    /**
+     * Return the animal's species
+     * @return the animal's species
+     */
+    protected Species getSpecies(){
+        return profile.getSpecies();
     }
 
     /**
-     * Set the animal's nutritional value
-     * @param value the animal's nutritional value
+     * Return the characteristics shared by the animal's species
+     * @return the animal's species profile
      */
-    protected void setNutritionalValue(int value){
-        nutritionalValue = value;
+    protected SpeciesProfile getProfile(){
+        return profile;
     }
 
     /**
-     * Set whether the animal is diseased
+     * Set whether the animal is diseased, marking its cell of the field to match
      * @param disease whether the animal is diseased
      */
     protected void setIsDiseased(boolean disease){
-        isDiseased = disease;
+        population.setDiseased(slot, disease);
+        int cell = population.getCell(slot);
+        if(cell >= 0) {
+            population.getField().setDiseased(cell, disease);
+        }
     }
 
     /**
@@ -168,34 +263,16 @@ public abstract class Animal {
      * @return whether the animal is diseased
      */
     protected boolean getIsDiseased(){
-        return this.isDiseased;
+        return population.isDiseased(slot);
     }
 
     /**
      * determines whether an animal dies if it is diseased based on randomised proobability
      */
     protected void checkDiseaseDeath(){
-        if(isDiseased && rand.nextDouble() < getStatistic("diseaseProbability")){
+        if(getIsDiseased() && Randomizer.getRandom().nextDouble() < profile.getDiseaseProbability()){
             this.setDead();
         }
     }
 
-    /**
-     * Retrieves probability values from the property file based on the key
-     * @param key Key of the variable to be found
-     * @return The key's corresponding probability value
-     */
-    protected double getStatistic(String key){
-        return Double.parseDouble(file.accessProperty(key));
-    }
-
-    /**
-     * Retrieves the integer value from the property file based on the key
-     * @param key key of the variable to be found
-     * @return The integer value corresponding to the key
-     */
-    protected int getBaseValue(String key){
-        return Integer.parseInt(file.accessProperty(key));
-    }
-
 }
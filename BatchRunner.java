@@ -0,0 +1,345 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs a simulation once for every combination of a grid of parameter values, several runs at a
+ * time, and writes one line of comma separated values summing up each run.
+ *
+ * Usage: java BatchRunner --vary KEY=V1,V2,... [--vary KEY=V1,V2,...] [--depth N] [--width N]
+ *                         [--steps N] [--replicates N] [--workers N] [--seed N] [--rng ALGORITHM] [--out FILE]
+ *                         [--stop CONDITION]...
+ *
+ * Each --vary names a key of the population base statistics file and the values to try for it,
+ * for example --vary sharkBreedingProbability=0.4,0.5,0.6 --vary tunaMaxAge=50,65; every other
+ * key keeps its value from the file. Each combination is run --replicates times, and replicate r
+ * of every combination uses the same random numbers, so that differences between combinations
+ * come from the parameters rather than from luck. --workers runs that many simulations at once
+ * (by default one per processor), and every run is given its turns on a single thread.
+ *
+ * A run stops after --steps steps, once fewer than two species of animal are left, or when one
+ * of the --stop conditions is met (see StopCondition.parse); every run gets conditions of its own.
+ * Its line gives the parameter values, the seed, the number of steps, the speed, why the run
+ * stopped, the final count of each species and the step at which each species died out (-1 if
+ * it did not). Lines are written in the order of the grid, whatever order the runs finish in.
+ *
+ * The simulations share nothing that changes: each has its own configuration, fields, population
+ * stores and random streams, and the random numbers drawn during a step come from the thread
+ * that is running it.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class BatchRunner {
+    // The default limit of each run.
+    private static final int DEFAULT_STEPS = 1000;
+
+    // The file's values, which every run starts from.
+    private final Properties base;
+    // The keys being varied and the values to try for each.
+    private final List<String> keys;
+    private final List<String[]> values;
+    private final int depth;
+    private final int width;
+    private final int maxSteps;
+    private final int replicates;
+    private final int workers;
+    // The streams from which every replicate's streams are split.
+    private final RandomStreams streams;
+    // The descriptions of the conditions that stop each run early.
+    private final List<String> stopConditions;
+
+    /**
+     * Create a batch of runs.
+     *
+     * @param base The values of the population base statistics, which every run starts from.
+     * @param keys The keys to vary.
+     * @param values The values to try for each key, in the same order as the keys.
+     * @param depth The depth of each run's field.
+     * @param width The width of each run's field.
+     * @param maxSteps The largest number of steps in a run.
+     * @param replicates How many times to run each combination, each time with different random numbers.
+     * @param workers How many runs to make at once.
+     * @param streams The streams from which each replicate's streams are split.
+     * @param stopConditions Descriptions of the conditions that stop a run early, as taken by StopCondition.parse.
+     */
+    public BatchRunner(Properties base, List<String> keys, List<String[]> values, int depth, int width,
+                       int maxSteps, int replicates, int workers, RandomStreams streams, List<String> stopConditions) {
+        if(workers < 1) {
+            throw new IllegalArgumentException("At least one worker thread is needed, not " + workers);
+        }
+        if(replicates < 1) {
+            throw new IllegalArgumentException("At least one replicate is needed, not " + replicates);
+        }
+        for(String condition : stopConditions) {
+            StopCondition.parse(condition);
+        }
+        for(String key : keys) {
+            if(!base.containsKey(key)) {
+                throw new IllegalArgumentException("\"" + key + "\" is not a key of " + PropertiesFile.FILE_NAME);
+            }
+        }
+        this.base = base;
+        this.keys = keys;
+        this.values = values;
+        this.depth = depth;
+        this.width = width;
+        this.maxSteps = maxSteps;
+        this.replicates = replicates;
+        this.workers = workers;
+        this.streams = streams;
+        this.stopConditions = stopConditions;
+    }
+
+    /**
+     * Make every run and write its line, along with a line of column names first.
+     * Every combination's configuration is checked before any run starts.
+     *
+     * @param out Where to write the lines.
+     * @throws InterruptedException if interrupted while waiting for a run.
+     * @throws ExecutionException if a run fails.
+     */
+    public void run(PrintStream out) throws InterruptedException, ExecutionException {
+        List<String[]> combinations = combinations();
+        List<Configuration> configs = new ArrayList<>();
+        for(String[] combination : combinations) {
+            configs.add(configure(combination));
+        }
+
+        out.println(header());
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            List<Future<String>> lines = new ArrayList<>();
+            for(int c = 0; c < combinations.size(); c++) {
+                for(int r = 0; r < replicates; r++) {
+                    String[] combination = combinations.get(c);
+                    Configuration config = configs.get(c);
+                    RandomStreams replicate = streams.split(r);
+                    lines.add(executor.submit(() -> runOne(combination, config, replicate)));
+                }
+            }
+            for(Future<String> line : lines) {
+                out.println(line.get());
+                out.flush();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * @return Every combination of the values, with the last key changing fastest.
+     */
+    private List<String[]> combinations() {
+        List<String[]> combinations = new ArrayList<>();
+        combinations.add(new String[0]);
+        for(String[] options : values) {
+            List<String[]> longer = new ArrayList<>();
+            for(String[] combination : combinations) {
+                for(String option : options) {
+                    String[] next = Arrays.copyOf(combination, combination.length + 1);
+                    next[combination.length] = option;
+                    longer.add(next);
+                }
+            }
+            combinations = longer;
+        }
+        return combinations;
+    }
+
+    /**
+     * Make the configuration of one combination: the file's values with the combination's in place of them.
+     * @param combination A value for each key being varied.
+     * @return The combination's configuration.
+     */
+    private Configuration configure(String[] combination) {
+        Properties properties = new Properties();
+        properties.putAll(base);
+        for(int k = 0; k < keys.size(); k++) {
+            properties.setProperty(keys.get(k), combination[k]);
+        }
+        return new Configuration(properties);
+    }
+
+    /**
+     * Run one simulation to its end on the calling thread.
+     * @return The run's line.
+     */
+    private String runOne(String[] combination, Configuration config, RandomStreams replicate) {
+        Simulator simulator = new Simulator(depth, width, config, false, replicate);
+        ExtinctionTracker extinctions = new ExtinctionTracker(simulator);
+        simulator.addObserver(extinctions);
+        for(String condition : stopConditions) {
+            simulator.addStopCondition(StopCondition.parse(condition));
+        }
+        long start = System.nanoTime();
+        String reason = "step limit reached";
+        while(simulator.getStep() < maxSteps) {
+            if(simulator.getStopReason() != null) {
+                reason = simulator.getStopReason();
+                break;
+            }
+            if(!simulator.isViable()) {
+                reason = "fewer than two species left";
+                break;
+            }
+            simulator.simulateOneStep();
+        }
+        if(simulator.getStopReason() != null) {
+            reason = simulator.getStopReason();
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        StringBuilder line = new StringBuilder();
+        for(String value : combination) {
+            line.append(value).append(',');
+        }
+        line.append(replicate.getSeed()).append(',').append(simulator.getStep())
+                .append(String.format(Locale.ROOT, ",%.1f", simulator.getStep() / Math.max(seconds, 1e-9)))
+                .append(",\"").append(reason).append('"');
+        for(Species species : Species.values()) {
+            line.append(',').append(countOf(simulator, species));
+        }
+        for(Species species : Species.values()) {
+            line.append(',').append(extinctions.getExtinctionStep(species));
+        }
+        return line.toString();
+    }
+
+    /**
+     * @return The column names of the lines.
+     */
+    private String header() {
+        StringBuilder line = new StringBuilder();
+        for(String key : keys) {
+            line.append(key).append(',');
+        }
+        line.append("seed,steps,steps_per_second,stop_reason");
+        for(Species species : Species.values()) {
+            line.append(',').append(species.name().toLowerCase(Locale.ROOT));
+        }
+        for(Species species : Species.values()) {
+            line.append(',').append(species.name().toLowerCase(Locale.ROOT)).append("_extinct");
+        }
+        return line.toString();
+    }
+
+    /**
+     * @return The number of living members of a species in a simulation.
+     */
+    private static int countOf(Simulator simulator, Species species) {
+        Field field = species == Species.PLANT ? simulator.getPlantField() : simulator.getField();
+        return field.getCount(species);
+    }
+
+    /**
+     * Notes the step at which each species of a simulation first has no living members.
+     */
+    private static class ExtinctionTracker implements SimulatorObserver {
+        // The step each species died out at, indexed by species code, or -1 while it is alive.
+        private final int[] extinct;
+
+        /**
+         * Start tracking a simulation from its current step.
+         * @param simulator The simulation to track.
+         */
+        ExtinctionTracker(Simulator simulator) {
+            extinct = new int[Species.CODE_COUNT];
+            Arrays.fill(extinct, -1);
+            simulationUpdated(simulator);
+        }
+
+        @Override
+        public void simulationUpdated(Simulator simulator) {
+            for(Species species : Species.values()) {
+                if(extinct[species.getCode()] < 0 && countOf(simulator, species) == 0) {
+                    extinct[species.getCode()] = simulator.getStep();
+                }
+            }
+        }
+
+        /**
+         * @param species A species.
+         * @return The step at which the species died out, or -1 if it has not.
+         */
+        int getExtinctionStep(Species species) {
+            return extinct[species.getCode()];
+        }
+    }
+
+    /**
+     * Run a batch from the command line.
+     * @param args The options described in the class comment.
+     */
+    public static void main(String[] args) throws Exception {
+        List<String> keys = new ArrayList<>();
+        List<String[]> values = new ArrayList<>();
+        int depth = 80;
+        int width = 120;
+        int steps = DEFAULT_STEPS;
+        int replicates = 1;
+        int workers = Runtime.getRuntime().availableProcessors();
+        long seed = Randomizer.getSeed();
+        String algorithm = RandomStreams.DEFAULT_ALGORITHM;
+        String outFile = null;
+        List<String> stopConditions = new ArrayList<>();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--vary": {
+                    String grid = args[++i];
+                    int equals = grid.indexOf('=');
+                    if(equals <= 0) {
+                        usage("Expected KEY=V1,V2,... after --vary, not " + grid);
+                    }
+                    keys.add(grid.substring(0, equals).trim());
+                    values.add(grid.substring(equals + 1).split(","));
+                    break;
+                }
+                case "--depth": depth = Integer.parseInt(args[++i]); break;
+                case "--width": width = Integer.parseInt(args[++i]); break;
+                case "--steps": steps = Integer.parseInt(args[++i]); break;
+                case "--replicates": replicates = Integer.parseInt(args[++i]); break;
+                case "--workers": workers = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--rng": algorithm = args[++i]; break;
+                case "--out": outFile = args[++i]; break;
+                case "--stop": stopConditions.add(args[++i]); break;
+                default: usage("Unknown option " + args[i]);
+            }
+        }
+        BatchRunner batch = new BatchRunner(new PropertiesFile().load(), keys, values, depth, width,
+                steps, replicates, workers, new RandomStreams(seed, algorithm), stopConditions);
+        if(outFile == null) {
+            batch.run(System.out);
+        }
+        else {
+            try(PrintStream out = new PrintStream(new FileOutputStream(outFile), false, "UTF-8")) {
+                batch.run(out);
+            }
+            catch(IOException e) {
+                throw new IllegalStateException("Cannot write " + outFile, e);
+            }
+        }
+    }
+
+    /**
+     * Print a problem with the command line and how to use it, then exit.
+     */
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: java BatchRunner --vary KEY=V1,V2,... [--vary KEY=V1,V2,...] [--depth N] [--width N]"
+                + " [--steps N] [--replicates N] [--workers N] [--seed N] [--rng ALGORITHM] [--out FILE]"
+                + " [--stop CONDITION]...");
+        System.exit(2);
+    }
+}
@@ -0,0 +1,242 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Saves the whole state of a simulation between two steps as a compact binary file, and
+ * carries a saved simulation on from where it stopped.
+ *
+ * A checkpoint holds the size of the field, the step, the seed and generator algorithm of the
+ * run's random streams, the weather, every living animal in the order they act and every plant
+ * in the order of its cell, with all of their changing state. Each step draws from a random stream of its own, and the
+ * weather's stream is wound on by the number of picks it had made, so a resumed run carries on
+ * exactly as the run it was saved from would have, as long as it is given the same base
+ * statistics and stepped in the same way (on the calling thread, or in tiles of the same size).
+ *
+ * The file starts with MAGIC and the format's VERSION, and all numbers are big-endian.
+ * How many animals and plants were made new or reused is not saved; those counts start again.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class Checkpoint {
+    // The first four bytes of every checkpoint: "OCKP".
+    public static final int MAGIC = 0x4F434B50;
+    // The version of the format written.
+    public static final int VERSION = 1;
+
+    // The bytes saved for each animal and each plant.
+    private static final int ANIMAL_BYTES = 2 + 5 * Integer.BYTES;
+    private static final int PLANT_BYTES = 2 * Integer.BYTES;
+    // The bits of an animal's saved flags.
+    private static final byte FEMALE = 1;
+    private static final byte DISEASED = 2;
+
+    /**
+     * Copy the state of a simulation into a buffer, ready to be written.
+     * This must be called between steps, on the thread that steps the simulation; the buffer
+     * can then be written by any thread while the simulation carries on.
+     *
+     * @param simulator The simulation to save.
+     * @return The checkpoint, positioned at its start.
+     */
+    public static ByteBuffer capture(Simulator simulator) {
+        List<Animal> animals = simulator.getAnimals();
+        PlantLayer plants = simulator.getPlants();
+        int plantCount = plants.getField().getCount(Species.PLANT);
+        byte[] algorithm = simulator.getRandomStreams().getAlgorithm().getBytes(StandardCharsets.UTF_8);
+        byte[] weather = simulator.getWeather().getDescription().getBytes(StandardCharsets.UTF_8);
+        int size = 10 * Integer.BYTES + Long.BYTES + algorithm.length + weather.length
+                + animals.size() * ANIMAL_BYTES + plantCount * PLANT_BYTES;
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        Field field = simulator.getField();
+        out.putInt(MAGIC).putInt(VERSION);
+        out.putInt(field.getDepth()).putInt(field.getWidth());
+        out.putInt(simulator.getStep());
+        out.putLong(simulator.getRandomStreams().getSeed());
+        out.putInt(algorithm.length).put(algorithm);
+        out.putInt(weather.length).put(weather);
+        out.putInt(simulator.getWeatherDraws());
+
+        out.putInt(animals.size());
+        for (Animal animal : animals) {
+            PopulationStore store = animal.getPopulation();
+            int slot = animal.getSlot();
+            byte flags = 0;
+            if (store.isFemale(slot)) {
+                flags |= FEMALE;
+            }
+            if (store.isDiseased(slot)) {
+                flags |= DISEASED;
+            }
+            out.put(store.getSpeciesCode(slot)).put(flags);
+            out.putInt(store.getCell(slot)).putInt(store.getAge(slot)).putInt(store.getFoodLevel(slot))
+                    .putInt(store.getHunger(slot)).putInt(store.getDiseaseCounter(slot));
+        }
+        out.putInt(plantCount);
+        Field plantField = plants.getField();
+        for (int row = 0; row < plantField.getDepth(); row++) {
+            for (int tile = row / Field.TILE_SIZE * plantField.getTilesAcross(), firstCol = 0; firstCol < plantField.getWidth();
+                 tile++, firstCol += Field.TILE_SIZE) {
+                if (plantField.isTileEmpty(tile)) {
+                    continue;
+                }
+                int end = plantField.cellOf(row, Math.min(firstCol + Field.TILE_SIZE, plantField.getWidth()));
+                for (int cell = plantField.cellOf(row, firstCol); cell < end; cell++) {
+                    if (plants.hasPlant(cell)) {
+                        out.putInt(cell).putInt(plants.getEatenCounter(cell));
+                    }
+                }
+            }
+        }
+        return out.flip();
+    }
+
+    /**
+     * Write a checkpoint to a file through a channel. It is written beside the file first and
+     * then moved over it, so a crash while writing leaves the last complete checkpoint in place.
+     *
+     * @param checkpoint A checkpoint made by capture.
+     * @param path The file to write.
+     * @throws IOException if the file cannot be written.
+     */
+    public static void write(ByteBuffer checkpoint, Path path) throws IOException {
+        Path partial = path.resolveSibling(path.getFileName() + ".part");
+        ByteBuffer source = checkpoint.duplicate();
+        try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (source.hasRemaining()) {
+                channel.write(source);
+            }
+            channel.force(false);
+        }
+        Files.move(partial, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read a checkpoint from a file through a channel.
+     *
+     * @param path The file to read.
+     * @return The checkpoint, positioned at its start.
+     * @throws IOException if the file cannot be read.
+     */
+    public static ByteBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(path + " is too large to be a checkpoint");
+            }
+            ByteBuffer in = ByteBuffer.allocate((int) size);
+            while (in.hasRemaining() && channel.read(in) >= 0) {
+                // Keep reading until the buffer is full.
+            }
+            return in.flip();
+        }
+    }
+
+    /**
+     * Create a simulation that carries on from a checkpoint file.
+     *
+     * @param path The checkpoint file.
+     * @param config The base statistics the saved simulation ran with.
+     * @param display Whether to show the simulation on screen.
+     * @return The resumed simulation, at the saved step.
+     * @throws IOException if the file cannot be read or is not a checkpoint this version understands.
+     */
+    public static Simulator resume(Path path, Configuration config, boolean display) throws IOException {
+        ByteBuffer in = read(path);
+        checkHeader(in, path);
+        int depth = in.getInt();
+        int width = in.getInt();
+        in.getInt();
+        long seed = in.getLong();
+        String algorithm = readString(in);
+        in.rewind();
+        Simulator simulator = new Simulator(depth, width, config, display, new RandomStreams(seed, algorithm));
+        restore(in, simulator);
+        return simulator;
+    }
+
+    /**
+     * Put the state saved in a checkpoint into a simulation, replacing its own.
+     * The simulation must have the same field size and random streams as the saved one.
+     *
+     * @param in A checkpoint, positioned at its start.
+     * @param simulator The simulation to restore into.
+     * @throws IOException if the buffer is not a checkpoint this version understands.
+     * @throws IllegalArgumentException if the simulation does not match the checkpoint.
+     */
+    public static void restore(ByteBuffer in, Simulator simulator) throws IOException {
+        checkHeader(in, "the checkpoint");
+        Field field = simulator.getField();
+        int depth = in.getInt();
+        int width = in.getInt();
+        if (depth != field.getDepth() || width != field.getWidth()) {
+            throw new IllegalArgumentException("The checkpoint is of a " + depth + " by " + width + " field, not "
+                    + field.getDepth() + " by " + field.getWidth());
+        }
+        int step = in.getInt();
+        long seed = in.getLong();
+        String algorithm = readString(in);
+        RandomStreams streams = simulator.getRandomStreams();
+        if (seed != streams.getSeed() || !algorithm.equals(streams.getAlgorithm())) {
+            throw new IllegalArgumentException("The checkpoint was made with seed " + seed + " and " + algorithm
+                    + ", not seed " + streams.getSeed() + " and " + streams.getAlgorithm());
+        }
+        Weather weather = Weather.fromDescription(readString(in));
+        int weatherDraws = in.getInt();
+        simulator.beginRestore(step, weather, weatherDraws);
+
+        int animalCount = in.getInt();
+        for (int i = 0; i < animalCount; i++) {
+            Species species = Species.fromCode(in.get());
+            byte flags = in.get();
+            Animal animal = simulator.restoreAnimal(species, in.getInt());
+            PopulationStore store = animal.getPopulation();
+            int slot = animal.getSlot();
+            store.setFemale(slot, (flags & FEMALE) != 0);
+            animal.setIsDiseased((flags & DISEASED) != 0);
+            store.setAge(slot, in.getInt());
+            store.setFoodLevel(slot, in.getInt());
+            store.setHunger(slot, in.getInt());
+            store.setDiseaseCounter(slot, in.getInt());
+        }
+        int plantCount = in.getInt();
+        PlantLayer plants = simulator.getPlants();
+        for (int i = 0; i < plantCount; i++) {
+            int cell = in.getInt();
+            plants.sow(cell, in.getInt());
+        }
+        simulator.endRestore();
+    }
+
+    /**
+     * Check that a buffer starts with the magic number and a version this class can read.
+     */
+    private static void checkHeader(ByteBuffer in, Object source) throws IOException {
+        if (in.remaining() < 2 * Integer.BYTES || in.getInt() != MAGIC) {
+            throw new IOException(source + " is not a checkpoint");
+        }
+        int version = in.getInt();
+        if (version != VERSION) {
+            throw new IOException(source + " is a version " + version + " checkpoint; only version "
+                    + VERSION + " can be read");
+        }
+    }
+
+    /**
+     * Read a string saved as its length in bytes followed by its UTF-8 bytes.
+     */
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves a checkpoint of a simulation every so many steps without holding up the simulation.
+ *
+ * The state is copied into a buffer between steps, on the thread stepping the simulation,
+ * which takes time in proportion to the number of animals and plants; the buffer is then
+ * written to the file on a thread of its own while the simulation carries on. If the last
+ * checkpoint is still being written when the next is due, the next is skipped rather than
+ * left to queue up.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class CheckpointWriter implements SimulatorObserver {
+    // The file the checkpoints are written to, each replacing the last.
+    private final Path path;
+    // How many steps between checkpoints.
+    private final int interval;
+    // Writes the checkpoints, one at a time.
+    private final ExecutorService writer;
+    // The checkpoint being written, or null if none has been started; used only by the simulation's thread.
+    private Future<?> pending;
+    // The first write that failed, reported when the writer is closed. Set only by the writing
+    // thread and read by the simulation's, so volatile.
+    private volatile IOException failure;
+    // The step of the last checkpoint written, or -1 if none has been. Set only by the writing
+    // thread and read by the simulation's, so volatile.
+    private volatile int lastWritten;
+
+    /**
+     * Create a writer that saves a checkpoint every given number of steps.
+     * @param path The file to write the checkpoints to.
+     * @param interval How many steps between checkpoints.
+     */
+    public CheckpointWriter(Path path, int interval) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Checkpoints must be at least one step apart, not " + interval);
+        }
+        this.path = path;
+        this.interval = interval;
+        lastWritten = -1;
+        writer = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "checkpoint writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Save a checkpoint if one is due at the simulation's current step.
+     * @param simulator The simulation, between steps.
+     */
+    @Override
+    public void simulationUpdated(Simulator simulator) {
+        int step = simulator.getStep();
+        if (step > 0 && step % interval == 0 && (pending == null || pending.isDone())) {
+            write(simulator);
+        }
+    }
+
+    /**
+     * Save a checkpoint of the simulation's current state, waiting for any being written first.
+     * @param simulator The simulation, between steps.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void save(Simulator simulator) throws InterruptedException {
+        if (pending != null) {
+            try {
+                pending.get();
+            }
+            catch (ExecutionException e) {
+                throw new IllegalStateException("Writing a checkpoint to " + path + " failed", e.getCause());
+            }
+        }
+        write(simulator);
+    }
+
+    /**
+     * Copy the simulation's current state and start writing it on the writing thread.
+     */
+    private void write(Simulator simulator) {
+        ByteBuffer checkpoint = Checkpoint.capture(simulator);
+        int step = simulator.getStep();
+        pending = writer.submit(() -> {
+            try {
+                Checkpoint.write(checkpoint, path);
+                lastWritten = step;
+            }
+            catch (IOException e) {
+                if (failure == null) {
+                    failure = e;
+                }
+            }
+        });
+    }
+
+    /**
+     * @return The step of the last checkpoint written in full, or -1 if none has been.
+     */
+    public int getLastWritten() {
+        return lastWritten;
+    }
+
+    /**
+     * Wait for the checkpoint being written, if any, and stop the writing thread.
+     * @throws IOException if any checkpoint could not be written.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public void close() throws IOException, InterruptedException {
+        writer.shutdown();
+        writer.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,220 @@
+import java.util.Properties;
+
+/**
+ * An immutable snapshot of the population base statistics.
+ * The values are parsed and checked once, when the snapshot is created, so that a missing
+ * or malformed entry stops the simulation before it starts rather than part way through a run.
+ * A single snapshot is shared by the simulator and every animal and plant it creates.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class Configuration {
+    // creation probabilities, indexed by species code and read from each species' NAME_CREATION_PROBABILITY key
+    private final double[] creationProbabilities;
+
+    // values shared by every species
+    private final double diseaseProbability;
+    private final int startingFoodLevel;
+
+    // the characteristics of each species of animal, indexed by species code; null for the rest
+    private final SpeciesProfile[] profiles;
+
+    // plant
+    private final double plantRegrowthProbability;
+    private final int plantMaxSeed;
+    private final int maxTimesEaten;
+
+    // weather
+    private final WeatherSchedule weatherSchedule;
+
+    /**
+     * Parse a configuration from the given properties.
+     *
+     * @param properties The properties holding the base statistics.
+     * @throws IllegalStateException if a key is missing or its value is malformed or out of range.
+     */
+    public Configuration(Properties properties) {
+        diseaseProbability = probability(properties, "diseaseProbability");
+        startingFoodLevel = positiveInt(properties, "startingFoodLevel");
+
+        creationProbabilities = new double[Species.CODE_COUNT];
+        profiles = new SpeciesProfile[Species.CODE_COUNT];
+        for(Species species : Species.values()) {
+            creationProbabilities[species.getCode()] = probability(properties, species.name() + "_CREATION_PROBABILITY");
+            if(species.isAnimal()) {
+                profiles[species.getCode()] = profile(properties, species);
+            }
+        }
+
+        plantRegrowthProbability = probability(properties, "plantRegrowthProbability");
+        plantMaxSeed = positiveInt(properties, "plantMaxSeed");
+        maxTimesEaten = nonNegativeInt(properties, "maxTimesEaten");
+        if(maxTimesEaten > PlantLayer.MAX_TIMES_EATEN) {
+            throw new IllegalStateException("\"maxTimesEaten\" must be at most " + PlantLayer.MAX_TIMES_EATEN
+                    + ": " + maxTimesEaten);
+        }
+
+        weatherSchedule = weatherSchedule(properties, "weatherSchedule");
+    }
+
+    /**
+     * Read and parse the "population base statistics" file.
+     * @return The parsed configuration.
+     * @throws IllegalStateException if the file cannot be read or holds an invalid value.
+     */
+    public static Configuration load() {
+        return new Configuration(new PropertiesFile().load());
+    }
+
+    /**
+     * Read the characteristics of a species of animal from the keys starting with the species'
+     * key prefix, such as "tunaMaxAge". Every key is required, except for the characteristics
+     * the species fixes itself, which must not be given.
+     */
+    private SpeciesProfile profile(Properties properties, Species species) {
+        String prefix = species.getKeyPrefix();
+        String breedingProbability = prefix + "BreedingProbability";
+        String nutritionalValue = prefix + "NutritionalValue";
+        String diseaseLimit = prefix + "DiseaseLimit";
+        return new SpeciesProfile(species,
+                nonNegativeInt(properties, prefix + "BreedingAge"),
+                positiveInt(properties, prefix + "MaxAge"),
+                species.getFixedBreedingProbability() == null ? probability(properties, breedingProbability)
+                        : fixed(properties, breedingProbability, species.getFixedBreedingProbability()),
+                positiveInt(properties, prefix + "MaxLitterSize"),
+                species.getFixedNutritionalValue() == null ? nonNegativeInt(properties, nutritionalValue)
+                        : fixed(properties, nutritionalValue, species.getFixedNutritionalValue()),
+                startingFoodLevel, diseaseProbability,
+                species.getFixedDiseaseLimit() == null ? positiveInt(properties, diseaseLimit)
+                        : fixed(properties, diseaseLimit, species.getFixedDiseaseLimit()));
+    }
+
+    /**
+     * Return the value a species fixes for one of its characteristics, failing if the key is
+     * given anyway, as it would otherwise be ignored.
+     */
+    private static <T> T fixed(Properties properties, String key, T value) {
+        if(properties.getProperty(key) != null) {
+            throw new IllegalStateException("\"" + key + "\" cannot be set in " + PropertiesFile.FILE_NAME
+                    + "; it is fixed at " + value + " by Species");
+        }
+        return value;
+    }
+
+    /**
+     * Return the trimmed value of a key, failing if it is missing.
+     */
+    private static String value(Properties properties, String key) {
+        String value = properties.getProperty(key);
+        if(value == null || value.trim().isEmpty()) {
+            throw new IllegalStateException("Missing value for \"" + key + "\" in " + PropertiesFile.FILE_NAME);
+        }
+        return value.trim();
+    }
+
+    /**
+     * Parse a probability, which must lie between 0 and 1.
+     */
+    private static double probability(Properties properties, String key) {
+        String value = value(properties, key);
+        double probability;
+        try {
+            probability = Double.parseDouble(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalStateException("\"" + key + "\" is not a number: " + value, ex);
+        }
+        if(!(probability >= 0 && probability <= 1)) {
+            throw new IllegalStateException("\"" + key + "\" must be between 0 and 1: " + value);
+        }
+        return probability;
+    }
+
+    /**
+     * Parse a weather schedule, as described by WeatherSchedule.parse.
+     */
+    private static WeatherSchedule weatherSchedule(Properties properties, String key) {
+        String value = value(properties, key);
+        try {
+            return WeatherSchedule.parse(value);
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalStateException("\"" + key + "\" is not a weather schedule: " + ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * Parse an integer which must not be negative.
+     */
+    private static int nonNegativeInt(Properties properties, String key) {
+        return integer(properties, key, 0);
+    }
+
+    /**
+     * Parse an integer which must be at least one.
+     */
+    private static int positiveInt(Properties properties, String key) {
+        return integer(properties, key, 1);
+    }
+
+    /**
+     * Parse an integer with the given lower bound.
+     */
+    private static int integer(Properties properties, String key, int min) {
+        String value = value(properties, key);
+        int number;
+        try {
+            number = Integer.parseInt(value);
+        } catch (NumberFormatException ex) {
+            throw new IllegalStateException("\"" + key + "\" is not a whole number: " + value, ex);
+        }
+        if(number < min) {
+            throw new IllegalStateException("\"" + key + "\" must be at least " + min + ": " + value);
+        }
+        return number;
+    }
+
+    /**
+     * @param species A species.
+     * @return The probability that a cell is given one of the species when the field is populated.
+     */
+    public double getCreationProbability(Species species) {
+        return creationProbabilities[species.getCode()];
+    }
+
+    /**
+     * @param species A species of animal.
+     * @return The characteristics shared by all of its animals.
+     * @throws IllegalArgumentException if the species is not an animal.
+     */
+    public SpeciesProfile getProfile(Species species) {
+        SpeciesProfile profile = profiles[species.getCode()];
+        if(profile == null) {
+            throw new IllegalArgumentException(species + " is not an animal");
+        }
+        return profile;
+    }
+
+    public double getDiseaseProbability() {
+        return diseaseProbability;
+    }
+
+    public int getStartingFoodLevel() {
+        return startingFoodLevel;
+    }
+
+    public double getPlantRegrowthProbability() {
+        return plantRegrowthProbability;
+    }
+
+    public int getPlantMaxSeed() {
+        return plantMaxSeed;
+    }
+
+    public int getMaxTimesEaten() {
+        return maxTimesEaten;
+    }
+
+    public WeatherSchedule getWeatherSchedule() {
+        return weatherSchedule;
+    }
+}
@@ -48,6 +48,15 @@ public class Counter
         count++;
     }
 
+    /**
+     * Increase the current count by the given amount.
+     * @param amount How much to add to the count.
+     */
+    public void increment(int amount)
+    {
+        count += amount;
+    }
+
     /**
      * Reset the current count to zero.
      */
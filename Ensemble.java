@@ -0,0 +1,307 @@
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Runs the same configuration many times with different random numbers, several runs at a time,
+ * and sums up how the population of each species develops across the runs, step by step.
+ *
+ * Usage: java Ensemble [--depth N] [--width N] [--steps N] [--min-runs N] [--max-runs N]
+ *                      [--target WIDTH] [--workers N] [--seed N] [--rng ALGORITHM] [--out FILE]
+ *                      [--stop CONDITION]...
+ *
+ * For every step and species the output gives the mean count, its standard deviation, a 95%
+ * confidence interval for the mean, and the 5th and 95th percentiles of the counts, which bound
+ * where most single runs fall. Every run lasts --steps steps, even when species die out, unless
+ * one of the --stop conditions is met (see StopCondition.parse): a run stopped early holds its
+ * final counts for the rest of its steps, and why and when it stopped is printed to the error stream.
+ *
+ * Runs are added until the confidence interval of every mean, at every step, is no wider than
+ * --target animals (after at least --min-runs runs), or until --max-runs runs have been made;
+ * a target of 0, the default, always makes --max-runs runs.
+ *
+ * The statistics are kept as they go, by RunningStatistics and QuantileSketch, so they take
+ * memory in proportion to the number of steps, however many runs there are. Each run keeps
+ * its own counts only until they are added in; runs are added in the order of their seeds,
+ * so the result, and the number of runs made, do not depend on how many run at once.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class Ensemble {
+    // The defaults of the command line.
+    private static final int DEFAULT_STEPS = 500;
+    private static final int DEFAULT_MIN_RUNS = 10;
+    private static final int DEFAULT_MAX_RUNS = 100;
+    // How many standard errors either side of the mean make a 95% confidence interval.
+    private static final double CONFIDENCE_Z = 1.96;
+    // The percentiles bounding the spread of single runs.
+    private static final double LOWER_QUANTILE = 0.05;
+    private static final double UPPER_QUANTILE = 0.95;
+
+    private static final Species[] SPECIES = Species.values();
+
+    private final Configuration config;
+    private final int depth;
+    private final int width;
+    private final int steps;
+    private final int minRuns;
+    private final int maxRuns;
+    // The widest confidence interval allowed before runs stop being added, or 0 to make every run.
+    private final double targetWidth;
+    private final int workers;
+    // The streams from which every run's streams are split.
+    private final RandomStreams streams;
+    // The descriptions of the conditions that stop each run early.
+    private final List<String> stopConditions;
+
+    // The statistics of each species at each step, indexed by step * SPECIES.length + species ordinal.
+    private final RunningStatistics[] counts;
+    private final QuantileSketch[] lower;
+    private final QuantileSketch[] upper;
+    // How many runs have been added to the statistics.
+    private int runs;
+
+    /**
+     * Create an ensemble of runs.
+     *
+     * @param config The configuration every run uses.
+     * @param depth The depth of each run's field.
+     * @param width The width of each run's field.
+     * @param steps The number of steps in every run.
+     * @param minRuns The fewest runs to make.
+     * @param maxRuns The most runs to make.
+     * @param targetWidth The widest confidence interval of a mean count that is precise enough,
+     *                    or 0 to make maxRuns runs.
+     * @param workers How many runs to make at once.
+     * @param streams The streams from which each run's streams are split.
+     * @param stopConditions Descriptions of the conditions that stop a run early, as taken by StopCondition.parse.
+     */
+    public Ensemble(Configuration config, int depth, int width, int steps, int minRuns, int maxRuns,
+                    double targetWidth, int workers, RandomStreams streams, List<String> stopConditions) {
+        if(workers < 1) {
+            throw new IllegalArgumentException("At least one worker thread is needed, not " + workers);
+        }
+        if(minRuns < 2 || maxRuns < minRuns) {
+            throw new IllegalArgumentException("Need at least two runs and no more than the most runs, not "
+                    + minRuns + " to " + maxRuns);
+        }
+        this.config = config;
+        this.depth = depth;
+        this.width = width;
+        this.steps = steps;
+        this.minRuns = minRuns;
+        this.maxRuns = maxRuns;
+        this.targetWidth = targetWidth;
+        this.workers = workers;
+        this.streams = streams;
+        for(String condition : stopConditions) {
+            StopCondition.parse(condition);
+        }
+        this.stopConditions = stopConditions;
+
+        int size = (steps + 1) * SPECIES.length;
+        counts = new RunningStatistics[size];
+        lower = new QuantileSketch[size];
+        upper = new QuantileSketch[size];
+        for(int i = 0; i < size; i++) {
+            counts[i] = new RunningStatistics();
+            lower[i] = new QuantileSketch(LOWER_QUANTILE);
+            upper[i] = new QuantileSketch(UPPER_QUANTILE);
+        }
+    }
+
+    /**
+     * Make runs until the statistics are precise enough or the most runs have been made.
+     * Runs still going when that happens are abandoned.
+     *
+     * @return The number of runs added to the statistics.
+     * @throws InterruptedException if interrupted while waiting for a run.
+     * @throws ExecutionException if a run fails.
+     */
+    public int run() throws InterruptedException, ExecutionException {
+        ExecutorService executor = Executors.newFixedThreadPool(workers);
+        try {
+            Deque<Future<Run>> running = new ArrayDeque<>();
+            int started = 0;
+            while(runs < maxRuns) {
+                while(started < maxRuns && running.size() < workers) {
+                    RandomStreams seed = streams.split(started++);
+                    running.add(executor.submit(() -> runOne(seed)));
+                }
+                Run run = running.remove().get();
+                if(run.stopReason != null) {
+                    System.err.println("Run " + runs + " (seed " + run.seed + ") stopped at step "
+                            + run.stopStep + ": " + run.stopReason);
+                }
+                add(run.trajectory);
+                if(runs >= minRuns && targetWidth > 0 && widestInterval() <= targetWidth) {
+                    break;
+                }
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+        return runs;
+    }
+
+    /**
+     * Run one simulation, counting every species after every step.
+     * @param seed The run's streams.
+     * @return The count of each species at each step, indexed like the statistics, and why the run stopped early if it did.
+     */
+    private Run runOne(RandomStreams seed) {
+        Simulator simulator = new Simulator(depth, width, config, false, seed);
+        for(String condition : stopConditions) {
+            simulator.addStopCondition(StopCondition.parse(condition));
+        }
+        FieldStats animals = new FieldStats();
+        FieldStats plants = new FieldStats();
+        int[] trajectory = new int[(steps + 1) * SPECIES.length];
+        for(int step = 0; step <= steps; step++) {
+            if(step > 0 && simulator.getStopReason() == null) {
+                simulator.simulateOneStep();
+            }
+            animals.update(simulator.getField());
+            plants.update(simulator.getPlantField());
+            for(Species species : SPECIES) {
+                FieldStats stats = species == Species.PLANT ? plants : animals;
+                trajectory[step * SPECIES.length + species.ordinal()] = stats.getCount(species);
+            }
+        }
+        return new Run(trajectory, seed.getSeed(), simulator.getStopReason(), simulator.getStopStep());
+    }
+
+    /**
+     * Add one run's counts to the statistics.
+     */
+    private void add(int[] trajectory) {
+        for(int i = 0; i < trajectory.length; i++) {
+            counts[i].add(trajectory[i]);
+            lower[i].add(trajectory[i]);
+            upper[i].add(trajectory[i]);
+        }
+        runs++;
+    }
+
+    /**
+     * @return The width of the widest confidence interval of any species' mean count at any step.
+     */
+    private double widestInterval() {
+        double widest = 0;
+        for(RunningStatistics statistics : counts) {
+            widest = Math.max(widest, 2 * CONFIDENCE_Z * statistics.getStandardError());
+        }
+        return widest;
+    }
+
+    /**
+     * Write the statistics as comma separated values, a line for each species at each step.
+     * @param out Where to write them.
+     */
+    public void write(PrintStream out) {
+        out.println("step,species,runs,mean,sd,ci_low,ci_high,p05,p95");
+        for(int step = 0; step <= steps; step++) {
+            for(Species species : SPECIES) {
+                int i = step * SPECIES.length + species.ordinal();
+                RunningStatistics statistics = counts[i];
+                double margin = CONFIDENCE_Z * statistics.getStandardError();
+                out.println(String.format(Locale.ROOT, "%d,%s,%d,%.2f,%.2f,%.2f,%.2f,%.1f,%.1f",
+                        step, species.name().toLowerCase(Locale.ROOT), statistics.getCount(),
+                        statistics.getMean(), statistics.getStandardDeviation(),
+                        statistics.getMean() - margin, statistics.getMean() + margin,
+                        lower[i].getQuantile(), upper[i].getQuantile()));
+            }
+        }
+    }
+
+    /**
+     * @return The number of runs added to the statistics.
+     */
+    public int getRuns() {
+        return runs;
+    }
+
+    /**
+     * The outcome of one run: its counts and, if a stop condition ended it early, why and when.
+     */
+    private static class Run {
+        final int[] trajectory;
+        final long seed;
+        final String stopReason;
+        final int stopStep;
+
+        Run(int[] trajectory, long seed, String stopReason, int stopStep) {
+            this.trajectory = trajectory;
+            this.seed = seed;
+            this.stopReason = stopReason;
+            this.stopStep = stopStep;
+        }
+    }
+
+    /**
+     * Run an ensemble from the command line.
+     * @param args The options described in the class comment.
+     */
+    public static void main(String[] args) throws Exception {
+        int depth = 80;
+        int width = 120;
+        int steps = DEFAULT_STEPS;
+        int minRuns = DEFAULT_MIN_RUNS;
+        int maxRuns = DEFAULT_MAX_RUNS;
+        double target = 0;
+        int workers = Runtime.getRuntime().availableProcessors();
+        long seed = Randomizer.getSeed();
+        String algorithm = RandomStreams.DEFAULT_ALGORITHM;
+        String outFile = null;
+        List<String> stopConditions = new ArrayList<>();
+        for(int i = 0; i < args.length; i++) {
+            switch(args[i]) {
+                case "--depth": depth = Integer.parseInt(args[++i]); break;
+                case "--width": width = Integer.parseInt(args[++i]); break;
+                case "--steps": steps = Integer.parseInt(args[++i]); break;
+                case "--min-runs": minRuns = Integer.parseInt(args[++i]); break;
+                case "--max-runs": maxRuns = Integer.parseInt(args[++i]); break;
+                case "--target": target = Double.parseDouble(args[++i]); break;
+                case "--workers": workers = Integer.parseInt(args[++i]); break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--rng": algorithm = args[++i]; break;
+                case "--out": outFile = args[++i]; break;
+                case "--stop": stopConditions.add(args[++i]); break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.err.println("Usage: java Ensemble [--depth N] [--width N] [--steps N] [--min-runs N]"
+                            + " [--max-runs N] [--target WIDTH] [--workers N] [--seed N] [--rng ALGORITHM] [--out FILE]"
+                            + " [--stop CONDITION]...");
+                    System.exit(2);
+            }
+        }
+        Ensemble ensemble = new Ensemble(Configuration.load(), depth, width, steps, minRuns, maxRuns,
+                target, workers, new RandomStreams(seed, algorithm), stopConditions);
+        long start = System.nanoTime();
+        ensemble.run();
+        System.err.println(String.format(Locale.ROOT, "%d runs in %.1f s", ensemble.getRuns(),
+                (System.nanoTime() - start) / 1e9));
+        if(outFile == null) {
+            ensemble.write(System.out);
+        }
+        else {
+            try(PrintStream out = new PrintStream(new FileOutputStream(outFile), false, "UTF-8")) {
+                ensemble.write(out);
+            }
+            catch(IOException e) {
+                throw new IllegalStateException("Cannot write " + outFile, e);
+            }
+        }
+    }
+}
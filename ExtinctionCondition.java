@@ -0,0 +1,35 @@
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Stops a simulation as soon as any of the given species has died out.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class ExtinctionCondition implements StopCondition {
+    // The species watched.
+    private final Species[] species;
+
+    /**
+     * Create a condition that watches the given species.
+     * @param species The species to watch, or none to watch every species of animal.
+     */
+    public ExtinctionCondition(Species... species) {
+        if (species.length == 0) {
+            species = Arrays.stream(Species.values()).filter(s -> s != Species.PLANT).toArray(Species[]::new);
+        }
+        this.species = species;
+    }
+
+    @Override
+    public String check(Simulator simulator) {
+        for (Species watched : species) {
+            Field field = watched == Species.PLANT ? simulator.getPlantField() : simulator.getField();
+            if (field.getCount(watched) == 0) {
+                return watched.name().toLowerCase(Locale.ROOT) + " died out";
+            }
+        }
+        return null;
+    }
+}
@@ -1,23 +1,81 @@
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 /**
  * Represent a rectangular gridded field of positions.
  * Each position is able to store a single animal.
  *
+ * The positions are stored row by row in a single array, and every position can be
+ * addressed by its cell index (row * width + col). The cell methods are the ones used
+ * while the simulation runs; the Location methods are kept for callers outside it.
+ *
+ * A field can also be made to hold species codes only, for occupants such as plants that are
+ * not objects; it then takes a byte per cell and reports each occupant as its Species.
+ *
+ * The cells are also grouped into square tiles of TILE_SIZE by TILE_SIZE, numbered row by row,
+ * and place and clear keep a summary of each tile: how many of its cells are occupied, and when
+ * it last changed. Passes over the whole field use them to skip the tiles that are empty, or
+ * that have not changed since they last looked, a tile at a time; on a large, sparse field
+ * that leaves most of the cells unvisited.
+ *
+ * A field of animals also keeps a bit for each cell whose occupant is diseased, and a count of
+ * the diseased of each species, so that whether an animal has a diseased neighbour is a few
+ * bit tests rather than a look at each neighbour. Animals mark their cell diseased with
+ * setDiseased; clearing a cell, or placing another occupant in it, unmarks it.
+ *
  * @author David J. Barnes and Michael Kölling and Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
  * @version 2022.03.01
  */
 public class Field {
-    // A random number generator for providing random locations.
-    private static final Random rand = Randomizer.getRandom();
+    // The largest number of cells adjacent to any one cell.
+    public static final int MAX_ADJACENT = 8;
+    // Row and column offsets of the adjacent cells, in clockwise order.
+    private static final int[] ROW_OFFSETS = {-1, -1, 0, 1, 1, 1, 0, -1};
+    private static final int[] COL_OFFSETS = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    // Whether population counts are checked against a full scan of the field.
+    // Turn on with -Dsimulation.verifyCounts=true when debugging.
+    public static final boolean VERIFY_COUNTS = Boolean.getBoolean("simulation.verifyCounts");
 
     // The depth and width of the field.
     private int depth, width;
-    // Storage for the animals.
-    private Object[][] field;
+    // Storage for the animals, one entry per cell, or null if the field holds codes only.
+    private Object[] field;
+    // The species code of each cell's occupant, or Species.EMPTY.
+    private byte[] codes;
+    // The number of cells holding each species code, and a hash of what is in which cell,
+    // both kept up to date by place and clear. The entry for Species.EMPTY counts the empty cells.
+    private final Tally tally;
+    private final int[] counts;
+    // The number of diseased occupants of each species code, kept in the tally beside the counts.
+    private final int[] diseasedCounts;
+    // A bit for each cell whose occupant is diseased, in row order, or null if the field holds
+    // codes only. The bits are set and cleared atomically, as tiles stepped at once share words.
+    private final AtomicLongArray diseased;
+    // While deferCounts is set, each thread adds its changes to a tally of its own
+    // instead, and mergeCounts folds them into the field's once the threads have finished.
+    private boolean deferCounts;
+    private final ThreadLocal<Tally> pendingTallies;
+    private final List<Tally> allPendingTallies;
+    // The state of the animals living on this field.
+    private final PopulationStore population;
+
+    // The number of cells along each side of a tile.
+    public static final int TILE_SIZE = 16;
+    private static final int TILE_SHIFT = 4;
+    // The number of tiles across and down the field; the last ones may be cut short by its edges.
+    private final int tilesAcross, tilesDown;
+    // The number of occupied cells in each tile.
+    private final int[] tileOccupants;
+    // The tiles changed while counts were deferred, whose occupants are counted again by mergeCounts.
+    private final boolean[] tileStale;
+    // The change stamp of each tile: the value of stamp when it last changed. markChanges
+    // moves stamp on, so a tile has changed since a mark if its stamp is no older than the mark.
+    private final int[] tileStamps;
+    private int stamp;
 
     /**
      * Represent a field of the given dimensions.
@@ -25,20 +83,93 @@ public class Field {
      * @param width The width of the field.
      */
     public Field(int depth, int width) {
+        this(depth, width, true);
+    }
+
+    /**
+     * Represent a field of the given dimensions, which may hold species codes only.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     * @param holdsOccupants Whether to keep the occupants themselves, or only their species codes.
+     */
+    public Field(int depth, int width, boolean holdsOccupants) {
+        long size = (long) depth * width;
+        if(size > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A field of " + depth + " by " + width + " is too large");
+        }
         this.depth = depth;
         this.width = width;
-        field = new Object[depth][width];
+        field = holdsOccupants ? new Object[(int) size] : null;
+        codes = new byte[(int) size];
+        tally = new Tally();
+        counts = tally.counts;
+        counts[Species.EMPTY] = codes.length;
+        diseasedCounts = tally.diseased;
+        diseased = holdsOccupants ? new AtomicLongArray((codes.length + Long.SIZE - 1) / Long.SIZE) : null;
+        population = new PopulationStore(this);
+        tilesAcross = (width + TILE_SIZE - 1) >>> TILE_SHIFT;
+        tilesDown = (depth + TILE_SIZE - 1) >>> TILE_SHIFT;
+        tileOccupants = new int[tilesAcross * tilesDown];
+        tileStale = new boolean[tileOccupants.length];
+        tileStamps = new int[tileOccupants.length];
+        allPendingTallies = new ArrayList<>();
+        pendingTallies = ThreadLocal.withInitial(() -> {
+            Tally pending = new Tally();
+            synchronized(allPendingTallies) {
+                allPendingTallies.add(pending);
+            }
+            return pending;
+        });
     }
 
     /**
-     * Empty the field.
+     * Empty the field. Only the tiles with occupants are visited, unless so many have
+     * occupants that filling the whole field is quicker.
      */
     public void clear() {
-        for(int row = 0; row < depth; row++) {
-            for(int col = 0; col < width; col++) {
-                field[row][col] = null;
+        population.clear();
+        int occupiedTiles = 0;
+        for(int occupants : tileOccupants) {
+            if(occupants > 0) {
+                occupiedTiles++;
+            }
+        }
+        if(occupiedTiles > tileOccupants.length / 4) {
+            if(field != null) {
+                Arrays.fill(field, null);
+            }
+            Arrays.fill(codes, Species.EMPTY);
+            Arrays.fill(tileOccupants, 0);
+            Arrays.fill(tileStamps, stamp);
+        }
+        else {
+            for(int tile = 0; tile < tileOccupants.length; tile++) {
+                if(tileOccupants[tile] == 0) {
+                    continue;
+                }
+                int firstRow = (tile / tilesAcross) << TILE_SHIFT;
+                int firstCol = (tile % tilesAcross) << TILE_SHIFT;
+                int endRow = Math.min(firstRow + TILE_SIZE, depth);
+                int endCol = Math.min(firstCol + TILE_SIZE, width);
+                for(int row = firstRow; row < endRow; row++) {
+                    if(field != null) {
+                        Arrays.fill(field, row * width + firstCol, row * width + endCol, null);
+                    }
+                    Arrays.fill(codes, row * width + firstCol, row * width + endCol, Species.EMPTY);
+                }
+                tileOccupants[tile] = 0;
+                tileStamps[tile] = stamp;
+            }
+        }
+        Arrays.fill(counts, 0);
+        counts[Species.EMPTY] = codes.length;
+        tally.hash = 0;
+        if(diseased != null && Arrays.stream(diseasedCounts).anyMatch(count -> count != 0)) {
+            for(int word = 0; word < diseased.length(); word++) {
+                diseased.set(word, 0);
             }
         }
+        Arrays.fill(diseasedCounts, 0);
     }
 
     /**
@@ -46,7 +177,29 @@ public class Field {
      * @param location The location to clear.
      */
     public void clear(Location location) {
-        field[location.getRow()][location.getCol()] = null;
+        clear(cellOf(location.getRow(), location.getCol()));
+    }
+
+    /**
+     * Clear the given cell.
+     * @param cell The index of the cell to clear.
+     */
+    public void clear(int cell) {
+        Tally tally = deferCounts ? pendingTallies.get() : this.tally;
+        if(isOccupied(cell)) {
+            occupantsChanged(cell, -1, tally);
+        }
+        else {
+            tileStamps[tileOf(cell)] = stamp;
+        }
+        if(field != null) {
+            field[cell] = null;
+        }
+        unmarkDiseased(cell, tally);
+        tally.counts[codes[cell]]--;
+        tally.hash ^= hashOf(cell, codes[cell]);
+        codes[cell] = Species.EMPTY;
+        tally.counts[Species.EMPTY]++;
     }
 
     /**
@@ -57,7 +210,7 @@ public class Field {
      * @param col Column coordinate of the location.
      */
     public void place(Object animal, int row, int col) {
-        place(animal, new Location(row, col));
+        place(animal, cellOf(row, col));
     }
 
     /**
@@ -68,7 +221,52 @@ public class Field {
      * @param location Where to place the animal.
      */
     public void place(Object animal, Location location) {
-        field[location.getRow()][location.getCol()] = animal;
+        place(animal, cellOf(location.getRow(), location.getCol()));
+    }
+
+    /**
+     * Place an animal in the given cell.
+     * If there is already an animal in the cell it will be lost.
+     * @param animal The animal to be placed.
+     * @param cell The index of the cell.
+     */
+    public void place(Object animal, int cell) {
+        place(animal, cell, Species.of(animal));
+    }
+
+    /**
+     * Place an animal of a known species in the given cell.
+     * If there is already an animal in the cell it will be lost.
+     * @param animal The animal to be placed.
+     * @param cell The index of the cell.
+     * @param species The animal's species, or null if it has none.
+     */
+    public void place(Object animal, int cell, Species species) {
+        byte code = species == null ? Species.EMPTY : species.getCode();
+        Tally tally = deferCounts ? pendingTallies.get() : this.tally;
+        boolean occupied = animal != null || code != Species.EMPTY;
+        if(occupied != isOccupied(cell)) {
+            occupantsChanged(cell, occupied ? 1 : -1, tally);
+        }
+        else {
+            tileStamps[tileOf(cell)] = stamp;
+        }
+        if(field != null) {
+            field[cell] = animal;
+        }
+        unmarkDiseased(cell, tally);
+        tally.counts[codes[cell]]--;
+        tally.hash ^= hashOf(cell, codes[cell]) ^ hashOf(cell, code);
+        codes[cell] = code;
+        tally.counts[code]++;
+    }
+
+    /**
+     * Return the store holding the state of the animals living on this field.
+     * @return The field's population.
+     */
+    public PopulationStore getPopulation() {
+        return population;
     }
 
     /**
@@ -87,24 +285,543 @@ public class Field {
      * @return The animal at the given location, or null if there is none.
      */
     public Object getObjectAt(int row, int col){
-        return field[row][col];
+        assert col >= 0 && col < width : "Column " + col + " is outside the field";
+        return getObjectAt(cellOf(row, col));
     }
 
+    /**
+     * Return the animal in the given cell, if any.
+     * @param cell The cell index, as returned by cellOf.
+     * @return The animal in the given cell, or null if there is none. A field holding
+     *         codes only gives the occupant's Species.
+     */
+    public Object getObjectAt(int cell){
+        return field != null ? field[cell] : Species.fromCode(codes[cell]);
+    }
+
+    /**
+     * Place a species in the given cell of a field that holds codes only.
+     * @param cell The index of the cell.
+     * @param species The species to place there.
+     */
+    public void place(int cell, Species species) {
+        place(null, cell, species);
+    }
+
+    /**
+     * Return the species code of the given cell's occupant.
+     * @param cell The cell index.
+     * @return The occupant's species code, or Species.EMPTY.
+     */
+    public byte getCodeAt(int cell) {
+        return codes[cell];
+    }
+
+    /**
+     * Return the species of the given cell's occupant.
+     * @param cell The cell index.
+     * @return The occupant's species, or null if the cell is empty.
+     */
+    public Species getSpeciesAt(int cell) {
+        return Species.fromCode(codes[cell]);
+    }
+
+    /**
+     * Count the occupants of each species by scanning the species codes,
+     * without touching the occupants themselves.
+     * @param counts An array of at least Species.CODE_COUNT elements, indexed by
+     *               species code, to which the counts are added.
+     */
+    public void countCodes(int[] counts) {
+        // Four separate tallies let consecutive cells be counted independently,
+        // instead of each increment waiting on the previous one to the same entry.
+        int[] tally0 = new int[Species.CODE_COUNT];
+        int[] tally1 = new int[Species.CODE_COUNT];
+        int[] tally2 = new int[Species.CODE_COUNT];
+        int[] tally3 = new int[Species.CODE_COUNT];
+        // The cells of the empty tiles are counted as empty all at once, at the end.
+        int scanned = 0;
+        for(int tile = 0; tile < tileOccupants.length; tile++) {
+            if(tileOccupants[tile] == 0) {
+                continue;
+            }
+            int firstRow = (tile / tilesAcross) << TILE_SHIFT;
+            int firstCol = (tile % tilesAcross) << TILE_SHIFT;
+            int endRow = Math.min(firstRow + TILE_SIZE, depth);
+            int endCol = Math.min(firstCol + TILE_SIZE, width);
+            scanned += (endRow - firstRow) * (endCol - firstCol);
+            for(int row = firstRow; row < endRow; row++) {
+                int cell = row * width + firstCol;
+                int end = row * width + endCol;
+                int blocked = cell + ((end - cell) & ~3);
+                for(; cell < blocked; cell += 4) {
+                    tally0[codes[cell]]++;
+                    tally1[codes[cell + 1]]++;
+                    tally2[codes[cell + 2]]++;
+                    tally3[codes[cell + 3]]++;
+                }
+                for(; cell < end; cell++) {
+                    tally0[codes[cell]]++;
+                }
+            }
+        }
+        tally0[Species.EMPTY] += codes.length - scanned;
+        for(int code = 0; code < Species.CODE_COUNT; code++) {
+            counts[code] += tally0[code] + tally1[code] + tally2[code] + tally3[code];
+        }
+    }
 
     /**
-     * Get a shuffled list of the free adjacent locations.
+     * Return how many cells are occupied by the given species.
+     * The count is kept up to date as occupants are placed and cleared, so this does not scan the field.
+     * @param species The species to count.
+     * @return The number of occupants of that species.
+     */
+    public int getCount(Species species) {
+        return counts[species.getCode()];
+    }
+
+    /**
+     * Copy the population counts of every species code into the given array.
+     * @param into An array of at least Species.CODE_COUNT elements, indexed by species code.
+     *             The entry for Species.EMPTY receives the number of empty cells.
+     */
+    public void copyCounts(int[] into) {
+        System.arraycopy(counts, 0, into, 0, counts.length);
+    }
+
+    /**
+     * Start keeping count changes per thread, so that several threads may place and clear
+     * cells at once as long as they never touch the same cell. The counts read by
+     * getCount are left as they were until mergeCounts is called.
+     */
+    public void deferCounts() {
+        deferCounts = true;
+    }
+
+    /**
+     * Add the count changes kept by every thread since deferCounts into the counts, and
+     * go back to updating them directly. Call only once the other threads have finished.
+     */
+    public void mergeCounts() {
+        deferCounts = false;
+        synchronized(allPendingTallies) {
+            for(Tally pending : allPendingTallies) {
+                for(int code = 0; code < pending.counts.length; code++) {
+                    counts[code] += pending.counts[code];
+                    pending.counts[code] = 0;
+                }
+                for(int code = 0; code < pending.diseased.length; code++) {
+                    diseasedCounts[code] += pending.diseased[code];
+                    pending.diseased[code] = 0;
+                }
+                tally.hash ^= pending.hash;
+                pending.hash = 0;
+                for(int i = 0; i < pending.staleCount; i++) {
+                    int tile = pending.staleTiles[i];
+                    if(tileStale[tile]) {
+                        tileOccupants[tile] = countOccupants(tile);
+                        tileStale[tile] = false;
+                    }
+                }
+                pending.staleCount = 0;
+            }
+        }
+    }
+
+    /**
+     * Mark the occupant of a cell as diseased or not. An occupant placed in the cell later
+     * starts unmarked, so an animal that moves marks its new cell again.
+     * @param cell The index of an occupied cell.
+     * @param isDiseased Whether its occupant is diseased.
+     */
+    public void setDiseased(int cell, boolean isDiseased) {
+        Tally tally = deferCounts ? pendingTallies.get() : this.tally;
+        if(!isDiseased) {
+            unmarkDiseased(cell, tally);
+        }
+        else if(!isDiseased(cell)) {
+            diseased.getAndAccumulate(cell >>> 6, 1L << cell, (bits, add) -> bits | add);
+            tally.diseased[codes[cell]]++;
+        }
+    }
+
+    /**
+     * @param cell The index of a cell.
+     * @return true if the cell's occupant is marked diseased.
+     */
+    public boolean isDiseased(int cell) {
+        return diseased != null && (diseased.get(cell >>> 6) & 1L << cell) != 0;
+    }
+
+    /**
+     * Return whether any of the cells adjacent to a cell holds a diseased occupant. This looks
+     * at the bits of the three rows around the cell a word at a time, and draws no random numbers.
+     * @param cell The index of the cell.
+     * @return true if a neighbour is diseased.
+     */
+    public boolean hasDiseasedNeighbour(int cell) {
+        if(diseased == null) {
+            return false;
+        }
+        int row = rowOf(cell);
+        int col = colOf(cell);
+        int firstCol = Math.max(col - 1, 0);
+        int lastCol = Math.min(col + 1, width - 1);
+        if(row > 0 && anyDiseased(cell - width - col + firstCol, cell - width - col + lastCol)) {
+            return true;
+        }
+        if(row < depth - 1 && anyDiseased(cell + width - col + firstCol, cell + width - col + lastCol)) {
+            return true;
+        }
+        return (col > 0 && isDiseased(cell - 1)) || (col < width - 1 && isDiseased(cell + 1));
+    }
+
+    /**
+     * Return whether any of the cells adjacent to a cell holds one of the given species,
+     * without drawing random numbers or listing them.
+     * @param cell The index of the cell.
+     * @param speciesMask The species looked for, as a mask of Species.mask() bits.
+     * @return true if a neighbour is of one of those species.
+     */
+    public boolean hasAdjacentMatching(int cell, int speciesMask) {
+        int row = rowOf(cell);
+        int col = colOf(cell);
+        for(int k = 0; k < MAX_ADJACENT; k++) {
+            int nextRow = row + ROW_OFFSETS[k];
+            int nextCol = col + COL_OFFSETS[k];
+            if(nextRow >= 0 && nextRow < depth && nextCol >= 0 && nextCol < width
+                    && Species.matches(speciesMask, codes[nextRow * width + nextCol])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Return how many occupants of the given species are marked diseased.
+     * Like getCount, this is kept up to date as they change and does not scan the field.
+     * @param species The species to count.
+     * @return The number of its diseased occupants.
+     */
+    public int getDiseasedCount(Species species) {
+        return diseasedCounts[species.getCode()];
+    }
+
+    /**
+     * Copy the number of diseased occupants of every species code into the given array.
+     * @param into An array of at least Species.CODE_COUNT elements, indexed by species code.
+     */
+    public void copyDiseasedCounts(int[] into) {
+        System.arraycopy(diseasedCounts, 0, into, 0, diseasedCounts.length);
+    }
+
+    /**
+     * Return a hash of which species is in which cell, kept up to date as occupants are placed
+     * and cleared, so this does not scan the field. Two fields holding the same species in the
+     * same cells have the same hash, however they came to hold them.
+     * @return The hash of the field's contents.
+     */
+    public long getStateHash() {
+        return tally.hash;
+    }
+
+    /**
+     * Check the population counts and state hash against a full scan of the species codes.
+     * @throws IllegalStateException if any count or the hash has drifted from the field's contents.
+     */
+    public void verifyCounts() {
+        long hash = 0;
+        int[] actual = new int[Species.CODE_COUNT];
+        int[] occupants = new int[tileOccupants.length];
+        for(int cell = 0; cell < codes.length; cell++) {
+            hash ^= hashOf(cell, codes[cell]);
+            actual[codes[cell]]++;
+            if(isOccupied(cell)) {
+                occupants[tileOf(cell)]++;
+            }
+        }
+        if(hash != tally.hash) {
+            throw new IllegalStateException("The state hash has drifted from the field's contents");
+        }
+        for(int code = 0; code < actual.length; code++) {
+            if(actual[code] != counts[code]) {
+                throw new IllegalStateException("Count for " + Species.fromCode((byte) code) + " is " + counts[code]
+                        + " but the field holds " + actual[code]);
+            }
+        }
+        for(int tile = 0; tile < occupants.length; tile++) {
+            if(occupants[tile] != tileOccupants[tile]) {
+                throw new IllegalStateException("Tile " + tile + " is said to hold " + tileOccupants[tile]
+                        + " occupants but holds " + occupants[tile]);
+            }
+        }
+        int[] diseasedActual = new int[Species.CODE_COUNT];
+        for(int cell = 0; cell < codes.length; cell++) {
+            if(isDiseased(cell)) {
+                if(codes[cell] == Species.EMPTY) {
+                    throw new IllegalStateException("Empty cell " + cell + " is marked diseased");
+                }
+                diseasedActual[codes[cell]]++;
+            }
+        }
+        for(int code = 0; code < diseasedActual.length; code++) {
+            if(diseasedActual[code] != diseasedCounts[code]) {
+                throw new IllegalStateException("Diseased count for " + Species.fromCode((byte) code) + " is "
+                        + diseasedCounts[code] + " but " + diseasedActual[code] + " cells are marked");
+            }
+        }
+    }
+
+    /**
+     * @return The number of tiles across the field.
+     */
+    public int getTilesAcross() {
+        return tilesAcross;
+    }
+
+    /**
+     * @return The number of tiles down the field.
+     */
+    public int getTilesDown() {
+        return tilesDown;
+    }
+
+    /**
+     * @return The number of tiles in the field.
+     */
+    public int getTileCount() {
+        return tileOccupants.length;
+    }
+
+    /**
+     * Return the tile a cell is in. The tile in tile row r and tile column c is numbered
+     * r * getTilesAcross() + c, and covers the rows from r * TILE_SIZE and the columns from
+     * c * TILE_SIZE, up to TILE_SIZE of each or the edge of the field.
+     * @param cell The cell index.
+     * @return The tile's number.
+     */
+    public int tileOf(int cell) {
+        int row = cell / width;
+        return (row >>> TILE_SHIFT) * tilesAcross + ((cell - row * width) >>> TILE_SHIFT);
+    }
+
+    /**
+     * Return whether a tile has no occupants. While counts are deferred, a tile changed since
+     * deferCounts may be reported wrongly until mergeCounts.
+     * @param tile The tile's number.
+     * @return true if none of the tile's cells is occupied.
+     */
+    public boolean isTileEmpty(int tile) {
+        return tileOccupants[tile] == 0;
+    }
+
+    /**
+     * Take a mark of the field's state, so that the tiles changed after it can be told apart
+     * from those that have not been. Each caller keeps its own marks; call only while no
+     * other thread is changing the field.
+     * @return The mark, for tileChangedSince.
+     */
+    public int markChanges() {
+        return ++stamp;
+    }
+
+    /**
+     * Return whether any cell of a tile has been placed or cleared, or marked changed, since a mark.
+     * @param tile The tile's number.
+     * @param mark A mark returned by markChanges.
+     * @return true if the tile may have changed since the mark was taken.
+     */
+    public boolean tileChangedSince(int tile, int mark) {
+        return tileStamps[tile] >= mark;
+    }
+
+    /**
+     * Note that the occupant of a cell has changed in a way the field cannot see, such as a
+     * plant being eaten, so that the cell's tile counts as changed. Threads stepping at once
+     * may mark cells of the same tile.
+     * @param cell The index of the cell.
+     */
+    public void markChanged(int cell) {
+        tileStamps[tileOf(cell)] = stamp;
+    }
+
+    /**
+     * Return the index of a cell, numbering the cells row by row.
+     * @param row The row of the cell.
+     * @param col The column of the cell.
+     * @return The cell index.
+     */
+    public int cellOf(int row, int col) {
+        return row * width + col;
+    }
+
+    /**
+     * @param cell The cell index.
+     * @return The row of the cell.
+     */
+    public int rowOf(int cell) {
+        return cell / width;
+    }
+
+    /**
+     * @param cell The cell index.
+     * @return The column of the cell.
+     */
+    public int colOf(int cell) {
+        return cell % width;
+    }
+
+    /**
+     * Return the location of a cell.
+     * @param cell The cell index.
+     * @return A new location for the cell.
+     */
+    public Location locationOf(int cell) {
+        return new Location(rowOf(cell), colOf(cell));
+    }
+
+    /**
+     * Write the indices of the cells adjacent to the given location into the given array,
+     * without allocating. The cells are in clockwise or anticlockwise order from a
+     * random starting neighbour, which gives each of them an equal chance of coming first.
+     * @param location The location from which to generate adjacencies.
+     * @param cells An array of at least MAX_ADJACENT elements to receive the cell indices.
+     * @return The number of adjacent cells written.
+     */
+    public int adjacentCells(Location location, int[] cells) {
+        return adjacentCells(location.getRow(), location.getCol(), cells);
+    }
+
+    /**
+     * Write the indices of the cells adjacent to the given cell into the given array.
+     * @param cell The cell from which to generate adjacencies.
+     * @param cells An array of at least MAX_ADJACENT elements to receive the cell indices.
+     * @return The number of adjacent cells written.
+     */
+    public int adjacentCells(int cell, int[] cells) {
+        return adjacentCells(rowOf(cell), colOf(cell), cells);
+    }
+
+    /**
+     * Write the indices of the cells adjacent to the given row and column into the given array.
+     * @param row The row from which to generate adjacencies.
+     * @param col The column from which to generate adjacencies.
+     * @param cells An array of at least MAX_ADJACENT elements to receive the cell indices.
+     * @return The number of adjacent cells written.
+     */
+    public int adjacentCells(int row, int col, int[] cells) {
+        // One draw picks both the starting neighbour and the direction of travel.
+        int rotation = Randomizer.getRandom().nextInt(2 * MAX_ADJACENT);
+        int start = rotation % MAX_ADJACENT;
+        int direction = rotation < MAX_ADJACENT ? 1 : MAX_ADJACENT - 1;
+        int count = 0;
+        for(int i = 0, k = start; i < MAX_ADJACENT; i++, k = (k + direction) % MAX_ADJACENT) {
+            int nextRow = row + ROW_OFFSETS[k];
+            int nextCol = col + COL_OFFSETS[k];
+            if(nextRow >= 0 && nextRow < depth && nextCol >= 0 && nextCol < width) {
+                cells[count++] = nextRow * width + nextCol;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Write the indices of the adjacent cells whose occupants match a species mask into the given array.
+     * @param cell The cell from which to generate adjacencies.
+     * @param speciesMask A combination of Species masks; Species.EMPTY_MASK matches empty cells.
+     * @param cells An array of at least MAX_ADJACENT elements to receive the cell indices.
+     * @return The number of matching adjacent cells written.
+     */
+    public int adjacentCellsMatching(int cell, int speciesMask, int[] cells) {
+        int count = adjacentCells(cell, cells);
+        int matching = 0;
+        for(int i = 0; i < count; i++) {
+            if(Species.matches(speciesMask, codes[cells[i]])) {
+                cells[matching++] = cells[i];
+            }
+        }
+        return matching;
+    }
+
+    /**
+     * Write the indices of the free cells adjacent to the given location into the given array.
+     * @param location The location from which to generate adjacencies.
+     * @param cells An array of at least MAX_ADJACENT elements to receive the cell indices.
+     * @return The number of free adjacent cells written.
+     */
+    public int freeAdjacentCells(Location location, int[] cells) {
+        return freeAdjacentCells(cellOf(location.getRow(), location.getCol()), cells);
+    }
+
+    /**
+     * Write the indices of the free cells adjacent to the given cell into the given array.
+     * @param cell The cell from which to generate adjacencies.
+     * @param cells An array of at least MAX_ADJACENT elements to receive the cell indices.
+     * @return The number of free adjacent cells written.
+     */
+    public int freeAdjacentCells(int cell, int[] cells) {
+        return adjacentCellsMatching(cell, Species.EMPTY_MASK, cells);
+    }
+
+    /**
+     * Check whether any cell adjacent to the given cell is free, without drawing random numbers.
+     * @param cell The cell whose neighbours to look at.
+     * @return true if at least one adjacent cell is empty.
+     */
+    public boolean hasFreeAdjacentCell(int cell) {
+        int row = rowOf(cell);
+        int col = colOf(cell);
+        for(int k = 0; k < MAX_ADJACENT; k++) {
+            int nextRow = row + ROW_OFFSETS[k];
+            int nextCol = col + COL_OFFSETS[k];
+            if(nextRow >= 0 && nextRow < depth && nextCol >= 0 && nextCol < width
+                    && codes[nextRow * width + nextCol] == Species.EMPTY) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Find a free cell adjacent to the given location.
+     * @param location The location from which to generate an adjacency.
+     * @return The index of a free adjacent cell, or -1 if there is none.
+     */
+    public int freeAdjacentCell(Location location) {
+        return freeAdjacentCell(cellOf(location.getRow(), location.getCol()));
+    }
+
+    /**
+     * Find a free cell adjacent to the given cell.
+     * @param cell The cell from which to generate an adjacency.
+     * @return The index of a free adjacent cell, or -1 if there is none.
+     */
+    public int freeAdjacentCell(int cell) {
+        int row = rowOf(cell);
+        int col = colOf(cell);
+        int rotation = Randomizer.getRandom().nextInt(2 * MAX_ADJACENT);
+        int start = rotation % MAX_ADJACENT;
+        int direction = rotation < MAX_ADJACENT ? 1 : MAX_ADJACENT - 1;
+        for(int i = 0, k = start; i < MAX_ADJACENT; i++, k = (k + direction) % MAX_ADJACENT) {
+            int nextRow = row + ROW_OFFSETS[k];
+            int nextCol = col + COL_OFFSETS[k];
+            if(nextRow >= 0 && nextRow < depth && nextCol >= 0 && nextCol < width
+                    && codes[nextRow * width + nextCol] == Species.EMPTY) {
+                return nextRow * width + nextCol;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Get a list of the free adjacent locations, in a random rotation.
      * @param location Get locations adjacent to this.
      * @return A list of free adjacent locations.
      */
     public List<Location> getFreeAdjacentLocations(Location location) {
-        List<Location> free = new LinkedList<>();
-        List<Location> adjacent = adjacentLocations(location);
-        for(Location next : adjacent) {
-            if(getObjectAt(next) == null) {
-                free.add(next);
-            }
-        }
-        return free;
+        int[] cells = new int[MAX_ADJACENT];
+        return toLocations(cells, freeAdjacentCells(location, cells));
     }
 
     /**
@@ -116,10 +833,9 @@ public class Field {
      * @return A valid location within the grid area.
      */
     public Location freeAdjacentLocation(Location location) {
-        // The available free ones.
-        List<Location> free = getFreeAdjacentLocations(location);
-        if(free.size() > 0) {
-            return free.get(0);
+        int cell = freeAdjacentCell(location);
+        if(cell >= 0) {
+            return locationOf(cell);
         }
         else {
             return null;
@@ -127,7 +843,8 @@ public class Field {
     }
 
     /**
-     * Return a shuffled list of locations adjacent to the given one.
+     * Return a list of locations adjacent to the given one, in a random rotation.
+     * This allocates a new list; adjacentCells answers the same question without allocating.
      * The list will not include the location itself.
      * All locations will lie within the grid.
      * @param location The location from which to generate adjacencies.
@@ -135,27 +852,23 @@ public class Field {
      */
     public List<Location> adjacentLocations(Location location) {
         assert location != null : "Null location passed to adjacentLocations";
-        // The list of locations to be returned.
-        List<Location> locations = new LinkedList<>();
-        if(location != null) {
-            int row = location.getRow();
-            int col = location.getCol();
-            for(int roffset = -1; roffset <= 1; roffset++) {
-                int nextRow = row + roffset;
-                if(nextRow >= 0 && nextRow < depth) {
-                    for(int coffset = -1; coffset <= 1; coffset++) {
-                        int nextCol = col + coffset;
-                        // Exclude invalid locations and the original location.
-                        if(nextCol >= 0 && nextCol < width && (roffset != 0 || coffset != 0)) {
-                            locations.add(new Location(nextRow, nextCol));
-                        }
-                    }
-                }
-            }
+        if(location == null) {
+            return new LinkedList<>();
+        }
+        int[] cells = new int[MAX_ADJACENT];
+        return toLocations(cells, adjacentCells(location, cells));
+    }
 
-            // Shuffle the list. Several other methods rely on the list
-            // being in a random order.
-            Collections.shuffle(locations, rand);
+    /**
+     * Turn the first count cell indices into a list of locations.
+     * @param cells The cell indices.
+     * @param count How many of the cells to use.
+     * @return A list of the matching locations.
+     */
+    private List<Location> toLocations(int[] cells, int count) {
+        List<Location> locations = new LinkedList<>();
+        for(int i = 0; i < count; i++) {
+            locations.add(locationOf(cells[i]));
         }
         return locations;
     }
@@ -175,4 +888,111 @@ public class Field {
     public int getWidth() {
         return width;
     }
+
+    /**
+     * Return the number of cells in the field.
+     * Cell indices run from zero up to, but not including, this number.
+     * @return The number of cells.
+     */
+    public int getSize() {
+        return codes.length;
+    }
+
+    /**
+     * Take the diseased mark off a cell, if it has one.
+     */
+    private void unmarkDiseased(int cell, Tally tally) {
+        if(isDiseased(cell)) {
+            diseased.getAndAccumulate(cell >>> 6, ~(1L << cell), (bits, keep) -> bits & keep);
+            tally.diseased[codes[cell]]--;
+        }
+    }
+
+    /**
+     * @return true if any cell from first to last, inclusive, is marked diseased.
+     */
+    private boolean anyDiseased(int first, int last) {
+        int firstWord = first >>> 6;
+        int lastWord = last >>> 6;
+        if(firstWord == lastWord) {
+            return (diseased.get(firstWord) & -1L << first & -1L >>> ~last) != 0;
+        }
+        return (diseased.get(firstWord) & -1L << first) != 0 || (diseased.get(lastWord) & -1L >>> ~last) != 0;
+    }
+
+    /**
+     * @return true if a cell holds an occupant.
+     */
+    private boolean isOccupied(int cell) {
+        return codes[cell] != Species.EMPTY || field != null && field[cell] != null;
+    }
+
+    /**
+     * Change the number of occupants of a cell's tile and mark it changed. While counts are
+     * deferred, tiles stepped at once by different threads may share the count, so the tile is
+     * put on the thread's tally to be counted again by mergeCounts instead.
+     */
+    private void occupantsChanged(int cell, int change, Tally tally) {
+        int tile = tileOf(cell);
+        tileStamps[tile] = stamp;
+        if(!deferCounts) {
+            tileOccupants[tile] += change;
+        }
+        else if(!tileStale[tile]) {
+            tileStale[tile] = true;
+            tally.addStaleTile(tile);
+        }
+    }
+
+    /**
+     * @return The number of occupied cells in a tile, counted cell by cell.
+     */
+    private int countOccupants(int tile) {
+        int firstRow = (tile / tilesAcross) << TILE_SHIFT;
+        int firstCol = (tile % tilesAcross) << TILE_SHIFT;
+        int endRow = Math.min(firstRow + TILE_SIZE, depth);
+        int endCol = Math.min(firstCol + TILE_SIZE, width);
+        int occupants = 0;
+        for(int row = firstRow; row < endRow; row++) {
+            for(int cell = row * width + firstCol; cell < row * width + endCol; cell++) {
+                if(isOccupied(cell)) {
+                    occupants++;
+                }
+            }
+        }
+        return occupants;
+    }
+
+    /**
+     * The part of the state hash contributed by one species in one cell: a random-looking
+     * number made by mixing the two, and zero for an empty cell. The hash of a field is all
+     * of its cells' parts XORed together, so a change to one cell is a change to one part.
+     */
+    private static long hashOf(int cell, byte code) {
+        if(code == Species.EMPTY) {
+            return 0;
+        }
+        long z = ((long) cell << Species.CODE_BITS | code) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * The population and diseased counts and state hash of a field, or the changes to them made by one
+     * thread while counts are deferred, along with the tiles whose occupants it changed.
+     */
+    private static class Tally {
+        final int[] counts = new int[Species.CODE_COUNT];
+        final int[] diseased = new int[Species.CODE_COUNT];
+        long hash;
+        int[] staleTiles = new int[16];
+        int staleCount;
+
+        void addStaleTile(int tile) {
+            if(staleCount == staleTiles.length) {
+                staleTiles = Arrays.copyOf(staleTiles, staleCount * 2);
+            }
+            staleTiles[staleCount++] = tile;
+        }
+    }
 }
@@ -1,49 +1,87 @@
 import javax.swing.*;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
 /**
  * This class collects and provides some statistical data on the state
- * of a field. It is flexible: it will create and maintain a counter
- * for any class of object that is found within the field.
+ * of a field. Counts for the known species are kept in an array indexed
+ * by species code and are reported in species order; a counter is still
+ * created on demand for any other class of object that is counted.
  *
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
  */
 public class FieldStats {
-    // Counters for each type of entity (shark, tuna, etc) in the simulation.
+    // The number of each species, indexed by species code.
+    private int[] counts;
+    // Whether each species has been counted since this object was created, indexed by species code.
+    private boolean[] seen;
+    // The number of each species that are diseased, indexed by species code.
+    private int[] diseased;
+    // Counters for classes of entity that are not a known species.
     private HashMap<Class, Counter> counters;
     // Whether the counters are currently up-to-date.
     private boolean countsValid;
 
+    // Reused to format the population details.
+    private final StringBuilder buffer;
+    // The counts the last population details were formatted from, and the result.
+    private int[] formattedCounts;
+    private int[] formattedDiseased;
+    private String formattedDetails;
+
     /**
      * Construct a FieldStats object.
      */
     public FieldStats() {
-        // Set up a collection for counters for each type of animal that
+        counts = new int[Species.CODE_COUNT];
+        seen = new boolean[Species.CODE_COUNT];
+        diseased = new int[Species.CODE_COUNT];
+        // Set up a collection for counters for any other type of entity
         // we might find
         counters = new HashMap<>();
         countsValid = true;
+        buffer = new StringBuilder();
+        formattedCounts = new int[Species.CODE_COUNT];
+        formattedDiseased = new int[Species.CODE_COUNT];
     }
 
     /**
      * Get details of what is in the field.
+     * A species with diseased members has their number after its count.
+     * The text is only rebuilt when a count has changed since the last call.
      * @return A string describing what is in the field.
      */
     public String getPopulationDetails(Field field) {
-        StringBuffer buffer = new StringBuffer();
-        if(!countsValid) {
-            generateCounts(field);
+        generateCounts(field);
+        if(formattedDetails != null && counters.isEmpty()
+                && Arrays.equals(counts, formattedCounts) && Arrays.equals(diseased, formattedDiseased)) {
+            return formattedDetails;
+        }
+        buffer.setLength(0);
+        for(int code = 1; code < counts.length; code++) {
+            if(seen[code]) {
+                buffer.append(Species.fromCode((byte) code).getDisplayName());
+                buffer.append(": ");
+                buffer.append(counts[code]);
+                if(diseased[code] > 0) {
+                    buffer.append(" (").append(diseased[code]).append(" diseased)");
+                }
+                buffer.append(' ');
+            }
         }
-        for(Class key : counters.keySet()) {
-            Counter info = counters.get(key);
+        for(Counter info : counters.values()) {
             buffer.append(info.getName());
             buffer.append(": ");
             buffer.append(info.getCount());
             buffer.append(' ');
         }
-        return buffer.toString();
+        System.arraycopy(counts, 0, formattedCounts, 0, counts.length);
+        System.arraycopy(diseased, 0, formattedDiseased, 0, diseased.length);
+        formattedDetails = buffer.toString();
+        return formattedDetails;
     }
 
     /**
@@ -52,8 +90,9 @@ public class FieldStats {
      */
     public void reset() {
         countsValid = false;
-        for(Class key : counters.keySet()) {
-            Counter count = counters.get(key);
+        Arrays.fill(counts, 0);
+        Arrays.fill(diseased, 0);
+        for(Counter count : counters.values()) {
             count.reset();
         }
     }
@@ -63,14 +102,57 @@ public class FieldStats {
      * @param animalClass The class of animal to increment.
      */
     public void incrementCount(Class animalClass) {
+        incrementCount(animalClass, 1);
+    }
+
+    /**
+     * Increase the count for one class of animal by the given amount.
+     * @param animalClass The class of animal to increment.
+     * @param amount How many animals of that class to add.
+     */
+    public void incrementCount(Class animalClass, int amount) {
+        Species species = Species.of(animalClass);
+        if(species != null) {
+            incrementCount(species, amount);
+            return;
+        }
         Counter count = counters.get(animalClass);
         if(count == null) {
-            // We do not have a counter for this species yet.
+            // We do not have a counter for this class yet.
             // Create one.
             count = new Counter(animalClass.getName());
             counters.put(animalClass, count);
         }
-        count.increment();
+        count.increment(amount);
+    }
+
+    /**
+     * Increase the count for one species by the given amount.
+     * @param species The species to increment.
+     * @param amount How many animals of that species to add.
+     */
+    public void incrementCount(Species species, int amount) {
+        byte code = species.getCode();
+        counts[code] += amount;
+        seen[code] = true;
+    }
+
+    /**
+     * Return the current count for one species.
+     * @param species The species to look up.
+     * @return How many of that species were counted.
+     */
+    public int getCount(Species species) {
+        return counts[species.getCode()];
+    }
+
+    /**
+     * Return how many of one species were diseased when last counted.
+     * @param species The species to look up.
+     * @return How many of that species are diseased.
+     */
+    public int getDiseasedCount(Species species) {
+        return diseased[species.getCode()];
     }
 
     /**
@@ -90,11 +172,13 @@ public class FieldStats {
     {
         // How many counts are non-zero.
         int nonZero = 0;
-        if(!countsValid) {
-            generateCounts(field);
+        generateCounts(field);
+        for(int code = 1; code < counts.length; code++) {
+            if(counts[code] > 0) {
+                nonZero++;
+            }
         }
-        for(Class key : counters.keySet()) {
-            Counter info = counters.get(key);
+        for(Counter info : counters.values()) {
             if(info.getCount() > 0) {
                 nonZero++;
             }
@@ -103,23 +187,52 @@ public class FieldStats {
     }
 
     /**
-     * Generate counts of the number of foxes and rabbits.
-     * These are not kept up to date as foxes and rabbits
-     * are placed in the field, but only when a request
-     * is made for the information.
+     * Count every species by scanning the whole field's species codes.
+     * The field's own counts make this unnecessary while a simulation runs;
+     * it is kept for checking them and for fields filled by other means.
+     * @param field The field to count.
+     */
+    public void countAll(Field field) {
+        reset();
+        field.countCodes(counts);
+        counts[Species.EMPTY] = 0;
+        markSeen();
+        countsValid = true;
+    }
+
+    /**
+     * Bring the count of each species up to date with a field, without describing them.
+     * The counts can then be read with getCount.
+     * @param field The field to count.
+     */
+    public void update(Field field) {
+        generateCounts(field);
+    }
+
+    /**
+     * Copy the population of each species, and how many of each are diseased, from the field.
+     * The field keeps these up to date as animals are placed and cleared,
+     * so this takes time proportional to the number of species, not the size of the field.
      * @param field The field to generate the stats for.
      */
     private void generateCounts(Field field) {
         reset();
-        for(int row = 0; row < field.getDepth(); row++) {
-            for(int col = 0; col < field.getWidth(); col++) {
-                Object animal = field.getObjectAt(row, col);
-                if(animal != null) {
-                    incrementCount(animal.getClass());
-                }
+        field.copyCounts(counts);
+        field.copyDiseasedCounts(diseased);
+        counts[Species.EMPTY] = 0;
+        markSeen();
+        countsValid = true;
+    }
+
+    /**
+     * Remember every species that currently has a non-zero count.
+     */
+    private void markSeen() {
+        for(int code = 1; code < counts.length; code++) {
+            if(counts[code] > 0) {
+                seen[code] = true;
             }
         }
-        countsValid = true;
     }
 
 
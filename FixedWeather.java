@@ -0,0 +1,25 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * A weather schedule that keeps the same weather for the whole run, drawing no random numbers.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class FixedWeather implements WeatherSchedule {
+    // The only weather of the run.
+    private final Weather weather;
+
+    /**
+     * Create a schedule that always gives the same weather.
+     * @param weather The weather.
+     */
+    public FixedWeather(Weather weather) {
+        this.weather = weather;
+    }
+
+    @Override
+    public Weather next(Weather current, RandomGenerator rand) {
+        return weather;
+    }
+}
@@ -0,0 +1,284 @@
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Runs a simulation without any display, as fast as it will go, and reports its progress as text.
+ * No windowing classes are loaded, so this can run on machines without a screen.
+ *
+ * Usage: java HeadlessSimulator [--depth N] [--width N] [--steps N] [--seconds S] [--progress N] [--csv]
+ *                                [--threads N] [--tile N] [--skip-idle] [--seed N] [--rng ALGORITHM]
+ *                                [--checkpoint FILE] [--checkpoint-every N] [--resume FILE]
+ *                                [--journal FILE] [--keyframe-every N] [--stop CONDITION]...
+ *
+ * --steps and --seconds limit the run by step count and by wall-clock time; the run also stops
+ * once fewer than two species of animal are left. --progress prints a line every N steps
+ * (0 for none), and --csv prints those lines as comma separated values instead of text.
+ * --threads runs each step on that many threads, in tiles of --tile cells square
+ * (0 threads, the default, runs every step on the main thread). --skip-idle only gives a turn to
+ * the animals whose turn does something, as decided by a TurnCalendar, which makes the run
+ * quicker but not different. --seed picks the run's random
+ * numbers, so a run can be repeated exactly, and --rng the generator algorithm they come from.
+ *
+ * --checkpoint saves the whole simulation to a file every --checkpoint-every steps and at the
+ * end, and --resume carries on a run from such a file, taking its size, seed and generator from
+ * the file; --steps still counts from the start of the original run.
+ *
+ * --journal records what changes in every step to a file, with the whole state every
+ * --keyframe-every steps, for JournalReader and JournalPlayer to play back.
+ *
+ * Each --stop adds a condition that ends the run early, as described by StopCondition.parse:
+ * extinction[:SPECIES,...], steady:EPSILON:STEPS or repeat:STEPS.
+ *
+ * The text summary ends with how many animals and plants were made new and how many births reused
+ * a dead one, and how much memory the run allocated per step, where the JVM can measure it.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class HeadlessSimulator {
+    // The default limits of a run.
+    private static final int DEFAULT_STEPS = 2000;
+    private static final int DEFAULT_PROGRESS = 100;
+    private static final int DEFAULT_CHECKPOINT_INTERVAL = 100;
+    private static final int DEFAULT_KEYFRAME_INTERVAL = 100;
+
+    private final Simulator simulator;
+    private final int maxSteps;
+    private final long maxNanos;
+    private final int progressInterval;
+    private final boolean csv;
+    private long startTime;
+    // The step the run started from, which is not zero for a resumed run.
+    private int startStep;
+
+    /**
+     * Create a headless run.
+     *
+     * @param simulator The simulation to run, created without a display.
+     * @param maxSteps The largest number of steps to run.
+     * @param maxSeconds The longest time to run for, or zero for no limit.
+     * @param progressInterval How many steps between progress lines, or zero for none.
+     * @param csv Whether to print progress as comma separated values.
+     */
+    public HeadlessSimulator(Simulator simulator, int maxSteps, double maxSeconds, int progressInterval, boolean csv) {
+        this.simulator = simulator;
+        this.maxSteps = maxSteps;
+        this.maxNanos = maxSeconds > 0 ? (long) (maxSeconds * 1e9) : Long.MAX_VALUE;
+        this.progressInterval = progressInterval;
+        this.csv = csv;
+    }
+
+    /**
+     * Run the simulation until one of the limits is reached, printing progress along the way.
+     * @return The number of steps per second the simulation reached.
+     */
+    public double run() {
+        if (csv && progressInterval > 0) {
+            printHeader();
+        }
+        long startBytes = allocatedBytes();
+        startTime = System.nanoTime();
+        startStep = simulator.getStep();
+        String reason = "step limit reached";
+        while (simulator.getStep() < maxSteps) {
+            if (simulator.getStopReason() != null) {
+                reason = simulator.getStopReason();
+                break;
+            }
+            if (!simulator.isViable()) {
+                reason = "fewer than two species left";
+                break;
+            }
+            if (System.nanoTime() - startTime >= maxNanos) {
+                reason = "time limit reached";
+                break;
+            }
+            simulator.simulateOneStep();
+            if (progressInterval > 0 && simulator.getStep() % progressInterval == 0) {
+                printProgress();
+            }
+        }
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        double rate = (simulator.getStep() - startStep) / Math.max(seconds, 1e-9);
+        if (csv) {
+            if (progressInterval > 0) {
+                printProgress();
+            }
+        }
+        else {
+            System.out.println(String.format(Locale.ROOT, "Finished after %d steps in %.3f s (%.1f steps/s): %s",
+                    simulator.getStep(), seconds, rate, reason));
+            printAllocations(startBytes);
+        }
+        return rate;
+    }
+
+    /**
+     * Print how many animals of each species were made new and reused, and the memory allocated per step.
+     * @param startBytes The bytes allocated before the run started, or -1 if unknown.
+     */
+    private void printAllocations(long startBytes) {
+        StringBuilder line = new StringBuilder("Made new / reused:");
+        PopulationStore store = simulator.getField().getPopulation();
+        for (Species species : Species.values()) {
+            if (species == Species.PLANT) {
+                // Plants are not objects, so none are made or reused.
+                continue;
+            }
+            line.append(' ').append(species.getDisplayName()).append(": ")
+                    .append(store.getCreated(species)).append(" / ").append(store.getReused(species));
+        }
+        System.out.println(line);
+        long endBytes = allocatedBytes();
+        int steps = simulator.getStep() - startStep;
+        if (startBytes >= 0 && endBytes >= 0 && steps > 0) {
+            System.out.println(String.format(Locale.ROOT, "Allocated %.1f MB, %.0f bytes per step",
+                    (endBytes - startBytes) / 1e6, (double) (endBytes - startBytes) / steps));
+        }
+    }
+
+    /**
+     * @return The bytes allocated so far by all live threads, or -1 if the JVM cannot tell.
+     */
+    private static long allocatedBytes() {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (!(threads instanceof com.sun.management.ThreadMXBean)) {
+            return -1;
+        }
+        com.sun.management.ThreadMXBean counting = (com.sun.management.ThreadMXBean) threads;
+        if (!counting.isThreadAllocatedMemorySupported() || !counting.isThreadAllocatedMemoryEnabled()) {
+            return -1;
+        }
+        long total = 0;
+        for (long bytes : counting.getThreadAllocatedBytes(threads.getAllThreadIds())) {
+            if (bytes > 0) {
+                total += bytes;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Print the column names of the comma separated progress lines.
+     */
+    private void printHeader() {
+        StringBuilder line = new StringBuilder("step,seconds,steps_per_second");
+        for (Species species : Species.values()) {
+            line.append(',').append(species.name().toLowerCase(Locale.ROOT));
+        }
+        System.out.println(line);
+    }
+
+    /**
+     * Print one line describing the current step, the speed so far and the population of each species.
+     */
+    private void printProgress() {
+        int step = simulator.getStep();
+        double seconds = (System.nanoTime() - startTime) / 1e9;
+        double rate = (step - startStep) / Math.max(seconds, 1e-9);
+        StringBuilder line = new StringBuilder();
+        if (csv) {
+            line.append(String.format(Locale.ROOT, "%d,%.3f,%.1f", step, seconds, rate));
+        }
+        else {
+            line.append(String.format(Locale.ROOT, "Step %d  %.3f s  %.1f steps/s ", step, seconds, rate));
+        }
+        for (Species species : Species.values()) {
+            Field field = species == Species.PLANT ? simulator.getPlantField() : simulator.getField();
+            if (csv) {
+                line.append(',').append(field.getCount(species));
+            }
+            else {
+                line.append(' ').append(species.getDisplayName()).append(": ").append(field.getCount(species));
+            }
+        }
+        System.out.println(line);
+    }
+
+    /**
+     * Run a simulation from the command line.
+     * @param args The options described in the class comment.
+     */
+    public static void main(String[] args) throws Exception {
+        int depth = 80;
+        int width = 120;
+        int steps = DEFAULT_STEPS;
+        double seconds = 0;
+        int progress = DEFAULT_PROGRESS;
+        boolean csv = false;
+        int threads = 0;
+        int tileSize = TileStepper.DEFAULT_TILE_SIZE;
+        boolean skipIdle = false;
+        long seed = Randomizer.getSeed();
+        String algorithm = RandomStreams.DEFAULT_ALGORITHM;
+        Path checkpoint = null;
+        int checkpointInterval = DEFAULT_CHECKPOINT_INTERVAL;
+        Path resume = null;
+        Path journal = null;
+        int keyframeInterval = DEFAULT_KEYFRAME_INTERVAL;
+        List<StopCondition> stopConditions = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--depth": depth = Integer.parseInt(args[++i]); break;
+                case "--width": width = Integer.parseInt(args[++i]); break;
+                case "--steps": steps = Integer.parseInt(args[++i]); break;
+                case "--seconds": seconds = Double.parseDouble(args[++i]); break;
+                case "--progress": progress = Integer.parseInt(args[++i]); break;
+                case "--csv": csv = true; break;
+                case "--threads": threads = Integer.parseInt(args[++i]); break;
+                case "--tile": tileSize = Integer.parseInt(args[++i]); break;
+                case "--skip-idle": skipIdle = true; break;
+                case "--seed": seed = Long.parseLong(args[++i]); break;
+                case "--rng": algorithm = args[++i]; break;
+                case "--checkpoint": checkpoint = Paths.get(args[++i]); break;
+                case "--checkpoint-every": checkpointInterval = Integer.parseInt(args[++i]); break;
+                case "--resume": resume = Paths.get(args[++i]); break;
+                case "--journal": journal = Paths.get(args[++i]); break;
+                case "--keyframe-every": keyframeInterval = Integer.parseInt(args[++i]); break;
+                case "--stop": stopConditions.add(StopCondition.parse(args[++i])); break;
+                default:
+                    System.err.println("Unknown option " + args[i]);
+                    System.err.println("Usage: java HeadlessSimulator [--depth N] [--width N] [--steps N] [--seconds S]"
+                            + " [--progress N] [--csv] [--threads N] [--tile N] [--skip-idle] [--seed N] [--rng ALGORITHM]"
+                            + " [--checkpoint FILE] [--checkpoint-every N] [--resume FILE]"
+                            + " [--journal FILE] [--keyframe-every N] [--stop CONDITION]...");
+                    System.exit(2);
+            }
+        }
+        Simulator simulator;
+        if (resume != null) {
+            simulator = Checkpoint.resume(resume, Configuration.load(), false);
+        }
+        else {
+            simulator = new Simulator(depth, width, Configuration.load(), false, new RandomStreams(seed, algorithm));
+        }
+        simulator.setParallelism(threads, tileSize);
+        simulator.setSkipIdleTurns(skipIdle);
+        for (StopCondition condition : stopConditions) {
+            simulator.addStopCondition(condition);
+        }
+        CheckpointWriter writer = null;
+        if (checkpoint != null) {
+            writer = new CheckpointWriter(checkpoint, checkpointInterval);
+            simulator.addObserver(writer);
+        }
+        JournalWriter journalWriter = null;
+        if (journal != null) {
+            journalWriter = new JournalWriter(journal, simulator, keyframeInterval);
+            simulator.addObserver(journalWriter);
+        }
+        new HeadlessSimulator(simulator, steps, seconds, progress, csv).run();
+        if (journalWriter != null) {
+            journalWriter.close();
+        }
+        if (writer != null) {
+            writer.save(simulator);
+            writer.close();
+        }
+    }
+}
@@ -1,6 +1,4 @@
-import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
 
 /**
  * This class provides a representation of helper fish as a prey species
@@ -11,24 +9,37 @@ import java.util.Random;
 
 public class HelperFish extends Prey{
 
-    private static final Random rand = Randomizer.getRandom();
-
     /**
      * Create a helper fish instance as a newborn (age zero and not hungry) or with a random age and food level.
      *
+     * @param profile   The characteristics shared by all helper fish.
      * @param randomAge If true, the fish will have random age and hunger level.
      * @param field     The field currently occupied.
-     * @param location  The location within the field.
+     * @param cell  The index of the cell within the field.
      * @param gender    The gender of the helper fish
      */
-    public HelperFish(boolean randomAge, Field field, Location location, boolean gender, Field plantField) {
-        super(randomAge, field, location, gender, plantField);
-        setBREEDING_AGE(getBaseValue("helperBreedingAge"));
-        setMAX_AGE(getBaseValue("helperMaxAge"));
-        setBREEDING_PROBABILITY(getStatistic("helperBreedingProbability"));
-        setMAX_LITTER_SIZE(getBaseValue("helperMaxLitterSize"));
-        setNutritionalValue(getBaseValue("helperNutritionalValue"));
+    public HelperFish(SpeciesProfile profile, boolean randomAge, Field field, int cell, boolean gender, PlantLayer plants) {
+        super(profile, randomAge, field, cell, gender, plants);
+
+    }
 
+    /**
+     * Create a newborn helper fish, reusing a dead one kept by the field's population store if there is one.
+     *
+     * @param profile The characteristics shared by all helper fish.
+     * @param field The field the helper fish is born on.
+     * @param cell The index of its cell within the field.
+     * @param gender The newborn's gender.
+     * @param plants The plants it eats.
+     * @return The newborn helper fish.
+     */
+    public static HelperFish newborn(SpeciesProfile profile, Field field, int cell, boolean gender, PlantLayer plants) {
+        HelperFish young = (HelperFish) field.getPopulation().reuse(Species.HELPER_FISH);
+        if(young == null) {
+            return new HelperFish(profile, false, field, cell, gender, plants);
+        }
+        young.reborn(cell, gender);
+        return young;
     }
 
     /**
@@ -44,10 +55,10 @@ public class HelperFish extends Prey{
         if(isAlive()) {
             findPlant();
             findMate(newHelperFish); // can mate and move to new location in same move
-            Location newLocation = getField().freeAdjacentLocation(getLocation());
+            int newCell = getField().freeAdjacentCell(getCell());
 
-            if(newLocation != null) { // See if it was possible to move.
-                setLocation(newLocation);
+            if(newCell >= 0) { // See if it was possible to move.
+                setCell(newCell);
             } else {
                 // Overcrowding.
                 setDead();
@@ -65,9 +76,9 @@ public class HelperFish extends Prey{
         if(isAlive()) {
             findPlant();
             findMate(newHelperFish);
-            Location newLocation = getField().freeAdjacentLocation(getLocation());
-            if(newLocation != null) {
-                setLocation(newLocation);
+            int newCell = getField().freeAdjacentCell(getCell());
+            if(newCell >= 0) {
+                setCell(newCell);
             }
             else {
                 setDead();
@@ -84,9 +95,9 @@ public class HelperFish extends Prey{
         incrementAge();
         if (isAlive()) {
             findPlant();
-            Location newLocation = getField().freeAdjacentLocation(getLocation());
-            if(newLocation != null) {
-                setLocation(newLocation);
+            int newCell = getField().freeAdjacentCell(getCell());
+            if(newCell >= 0) {
+                setCell(newCell);
             }
             else {
                 setDead();
@@ -102,20 +113,19 @@ public class HelperFish extends Prey{
      */
     protected void findMate(List<Animal> newHelperFish) {
         Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
-        Iterator<Location> it = adjacent.iterator();
+        int[] adjacent = getAdjacentBuffer();
+        int[] free = getFreeBuffer();
+        int count = field.adjacentCells(getCell(), adjacent);
+        int freeCount = field.freeAdjacentCells(getCell(), free);
 
-        while (it.hasNext()) {
-            Location where = it.next();
-            Object animal = field.getObjectAt(where);
-            if (animal instanceof HelperFish) {
-                HelperFish mate = (HelperFish) animal;
+        for (int i = 0; i < count; i++) {
+            if (field.getCodeAt(adjacent[i]) == getSpecies().getCode()) {
+                Animal mate = (Animal) field.getObjectAt(adjacent[i]);
                 if (mate.isAlive() && mate.getGender() != this.getGender()) {
                     int births = breed();
-                    for (int b = 0; b < births && free.size() > 0; b++) {
-                        Location loc = free.remove(0);
-                        HelperFish young = new HelperFish(false, field, loc, rand.nextBoolean(), plantField);
+                    for (int b = 0; b < births && b < freeCount; b++) {
+                        int loc = free[b];
+                        HelperFish young = HelperFish.newborn(profile, field, loc, Randomizer.getRandom().nextBoolean(), plants);
                         newHelperFish.add(young);
                     }
                 }
@@ -0,0 +1,71 @@
+import java.nio.file.Paths;
+
+/**
+ * Plays back a journal written by JournalWriter in the simulation's windows.
+ *
+ * Usage: java JournalPlayer FILE [--from N] [--to N] [--speed N] [--every N]
+ *
+ * Playback starts at step --from (0 by default) and stops at step --to or the end of the journal.
+ * --speed is how many steps to show a second (0, the default, for as fast as they can be drawn),
+ * and --every shows only every Nth step, so long runs can be skimmed.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class JournalPlayer {
+    /**
+     * Play a journal from the command line.
+     * @param args The journal file and the options described in the class comment.
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            usage("No journal given");
+        }
+        int from = 0;
+        int to = Integer.MAX_VALUE;
+        double speed = 0;
+        int every = 1;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--from": from = Integer.parseInt(args[++i]); break;
+                case "--to": to = Integer.parseInt(args[++i]); break;
+                case "--speed": speed = Double.parseDouble(args[++i]); break;
+                case "--every": every = Integer.parseInt(args[++i]); break;
+                default: usage("Unknown option " + args[i]);
+            }
+        }
+
+        JournalReader journal = new JournalReader(Paths.get(args[0]));
+        if (!journal.seek(from)) {
+            System.err.println("The journal stops at step " + journal.getStep());
+        }
+        Field field = journal.getField();
+        SimulatorGui gui = new SimulatorGui(field.getDepth(), field.getWidth());
+        long pause = speed > 0 ? (long) (1000 / speed) : 0;
+        show(gui, journal);
+        while (journal.getStep() < to && journal.next()) {
+            if (journal.getStep() % every == 0) {
+                show(gui, journal);
+                if (pause > 0) {
+                    Thread.sleep(pause);
+                }
+            }
+        }
+    }
+
+    /**
+     * Draw the journal's current step.
+     */
+    private static void show(SimulatorGui gui, JournalReader journal) {
+        gui.show(journal.getStep(), journal.getField(), journal.getPlantField(), journal.getWeather(), journal.isDay());
+    }
+
+    /**
+     * Print a problem with the command line and how to use it, then exit.
+     */
+    private static void usage(String problem) {
+        System.err.println(problem);
+        System.err.println("Usage: java JournalPlayer FILE [--from N] [--to N] [--speed N] [--every N]");
+        System.exit(2);
+    }
+}
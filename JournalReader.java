@@ -0,0 +1,254 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Plays back a journal written by JournalWriter, one step at a time or from any step.
+ *
+ * The reader keeps a field of animals and a field of plants, which it brings up to date from
+ * the journal's records and which can be shown by a SimulatorView like a running simulation's.
+ * Moving to a step starts from the last keyframe at or before it, found from the index, and
+ * applies the changes recorded after it, which costs far less than simulating those steps.
+ * A record cut short, as by a crash while it was being written, ends the journal.
+ * The journal is mapped into memory, so it can be no larger than 2 GB.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class JournalReader {
+    // The journal, and where its records start.
+    private final ByteBuffer journal;
+    private final int firstRecord;
+    // The step and position of every keyframe, in the order they were written.
+    private final int[] keyframeSteps;
+    private final long[] keyframePositions;
+
+    // The state as of the last record read. The fields hold placeholders of the right species.
+    private final Field field;
+    private final Field plantField;
+    private final int[] eaten;
+    private int step;
+    private boolean day;
+    private Weather weather;
+
+    /**
+     * Open a journal and its index.
+     * @param path The journal file; the index is the file beside it with JournalWriter.INDEX_SUFFIX added.
+     * @throws IOException if either cannot be read, or the journal is not one this version understands.
+     */
+    public JournalReader(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            journal = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (journal.remaining() < 4 * Integer.BYTES || journal.getInt() != JournalWriter.MAGIC) {
+            throw new IOException(path + " is not a journal");
+        }
+        int version = journal.getInt();
+        if (version != JournalWriter.VERSION) {
+            throw new IOException(path + " is a version " + version + " journal; only version "
+                    + JournalWriter.VERSION + " can be read");
+        }
+        int depth = journal.getInt();
+        int width = journal.getInt();
+        firstRecord = journal.position();
+        field = new Field(depth, width);
+        plantField = new Field(depth, width, false);
+        eaten = new int[field.getSize()];
+        step = -1;
+
+        ByteBuffer entries = ByteBuffer.wrap(Files.readAllBytes(path.resolveSibling(path.getFileName()
+                + JournalWriter.INDEX_SUFFIX)));
+        int count = entries.remaining() / JournalWriter.INDEX_ENTRY_BYTES;
+        keyframeSteps = new int[count];
+        keyframePositions = new long[count];
+        for (int i = 0; i < count; i++) {
+            keyframeSteps[i] = entries.getInt();
+            keyframePositions[i] = entries.getLong();
+        }
+    }
+
+    /**
+     * Move on to the next record in the journal.
+     * @return true if there was one, false at the end of the journal.
+     */
+    public boolean next() {
+        int start = journal.position();
+        if (!journal.hasRemaining()) {
+            return false;
+        }
+        int length = getVarInt();
+        if (length < 0 || journal.remaining() < length) {
+            // The last record was not written in full.
+            journal.position(start);
+            return false;
+        }
+        apply();
+        return true;
+    }
+
+    /**
+     * Move to the given step, starting from the last keyframe at or before it.
+     * @param target The step to move to.
+     * @return true if the step was found, false if the journal does not reach it, in which
+     *         case the reader is left at the last step it does reach.
+     */
+    public boolean seek(int target) {
+        int keyframe = -1;
+        for (int i = 0; i < keyframeSteps.length; i++) {
+            if (keyframeSteps[i] <= target && (keyframe < 0 || keyframeSteps[i] >= keyframeSteps[keyframe])) {
+                keyframe = i;
+            }
+        }
+        if (keyframe < 0 || step < 0 || step > target || step < keyframeSteps[keyframe]) {
+            journal.position(keyframe < 0 ? firstRecord : (int) keyframePositions[keyframe]);
+            if (!next()) {
+                return false;
+            }
+        }
+        while (step < target) {
+            if (!next()) {
+                return false;
+            }
+        }
+        return step == target;
+    }
+
+    /**
+     * Apply the record at the journal's position.
+     */
+    private void apply() {
+        if (journal.get() == JournalWriter.KEYFRAME) {
+            field.clear();
+            plantField.clear();
+            Arrays.fill(eaten, 0);
+        }
+        step = getVarInt();
+        int flags = journal.get();
+        day = (flags & JournalWriter.DAY) != 0;
+        if ((flags & JournalWriter.WEATHER) != 0) {
+            byte[] bytes = new byte[getVarInt()];
+            journal.get(bytes);
+            weather = Weather.fromDescription(new String(bytes, StandardCharsets.UTF_8));
+        }
+
+        int cell = -1;
+        for (long change = getVarLong(); change != 0; change = getVarLong()) {
+            cell += (int) (change >>> Species.CODE_BITS);
+            Species species = Species.fromCode((byte) (change & Species.CODE_MASK));
+            if (species == null) {
+                field.clear(cell);
+            }
+            else {
+                field.place(species, cell, species);
+            }
+        }
+
+        cell = -1;
+        for (int gap = getVarInt(); gap != 0; gap = getVarInt()) {
+            cell += gap;
+            int plant = getVarInt();
+            if (plant == 0) {
+                plantField.clear(cell);
+                eaten[cell] = 0;
+            }
+            else {
+                plantField.place(cell, Species.PLANT);
+                eaten[cell] = plant - 1;
+            }
+        }
+    }
+
+    /**
+     * Read a non-negative int written seven bits to a byte, lowest first.
+     * @return The int, or -1 if the journal ends part way through it.
+     */
+    private int getVarInt() {
+        int value = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!journal.hasRemaining()) {
+                return -1;
+            }
+            byte b = journal.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Read a non-negative long written seven bits to a byte, lowest first.
+     * @return The long, or -1 if the journal ends part way through it.
+     */
+    private long getVarLong() {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            if (!journal.hasRemaining()) {
+                return -1;
+            }
+            byte b = journal.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return The step of the last record read, or -1 if none has been.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return The animals as of the last record read, as placeholders of their species.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return The plants as of the last record read, as placeholders.
+     */
+    public Field getPlantField() {
+        return plantField;
+    }
+
+    /**
+     * @param cell A cell index.
+     * @return How many times the plant in the cell had been eaten, counting from the four it starts with,
+     *         or 0 if there is no plant.
+     */
+    public int getEatenCounter(int cell) {
+        return eaten[cell];
+    }
+
+    /**
+     * @return The weather as of the last record read.
+     */
+    public Weather getWeather() {
+        return weather;
+    }
+
+    /**
+     * @return Whether it was day time as of the last record read.
+     */
+    public boolean isDay() {
+        return day;
+    }
+
+    /**
+     * @return The steps of the keyframes, in the order they were written.
+     */
+    public int[] getKeyframeSteps() {
+        return keyframeSteps.clone();
+    }
+}
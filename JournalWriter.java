@@ -0,0 +1,266 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Records a simulation step by step in an append-only journal, so that a run can be looked at
+ * again, or played back on screen, without simulating it again.
+ *
+ * Each step is recorded as what changed since the step before: the cells whose animal's species
+ * changed (births, deaths and moves), the cells whose plant appeared, went or was eaten, and the
+ * weather when it changes. Every so many steps a keyframe records the whole state instead, as the
+ * changes from an empty field, so that a reader can start there rather than at the beginning.
+ * The position of every keyframe is appended to an index file beside the journal.
+ * Only the tiles of the fields that have changed since the last record are compared, or, for a
+ * keyframe, the tiles that are not empty.
+ *
+ * The journal starts with MAGIC, VERSION and the depth and width of the field. Every record is its
+ * length as a varint followed by:
+ *   byte kind (KEYFRAME or DELTA), varint step, byte flags (DAY, WEATHER),
+ *   if WEATHER: varint length and the weather's UTF-8 bytes,
+ *   the animal changes, each a varlong (cells since the last change << Species.CODE_BITS | species code), ending in 0,
+ *   the plant changes, each a varint of the cells since the last change followed by a varint of the
+ *   plant's eaten counter plus one, or 0 if the cell has no plant, ending in 0.
+ * Each index entry is a keyframe's step as an int and its position in the journal as a long.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class JournalWriter implements SimulatorObserver {
+    // The first four bytes of every journal: "OJNL".
+    public static final int MAGIC = 0x4F4A4E4C;
+    // The version of the format written.
+    public static final int VERSION = 1;
+    // Added to the journal's name to make the name of its index.
+    public static final String INDEX_SUFFIX = ".idx";
+
+    // The kinds of record.
+    static final byte KEYFRAME = 1;
+    static final byte DELTA = 2;
+    // The bits of a record's flags.
+    static final byte DAY = 1;
+    static final byte WEATHER = 2;
+    // The bytes of one index entry.
+    static final int INDEX_ENTRY_BYTES = Integer.BYTES + Long.BYTES;
+
+    private final FileChannel journal;
+    private final FileChannel index;
+    // How many steps between keyframes.
+    private final int keyframeInterval;
+
+    // The state as of the last record: the species code of each cell, and each cell's plant
+    // as its eaten counter plus one, or 0 for none.
+    private final byte[] animals;
+    private final int[] plants;
+    private Weather weather;
+    // The marks of the animal and plant fields taken at the last record.
+    private int animalMark;
+    private int plantMark;
+    // The step of the last record, or -1 before the first.
+    private int lastStep;
+
+    // The record being made, its length prefix, and an index entry, reused for every record.
+    private byte[] record;
+    private int length;
+    private final ByteBuffer prefix;
+    private final ByteBuffer indexEntry;
+    // How many bytes of the journal have been written.
+    private long position;
+
+    /**
+     * Start a journal of a simulation, recording its current state as the first keyframe.
+     * The writer must then be added to the simulation's observers to record each step.
+     *
+     * @param path The journal file, which is replaced if it exists.
+     * @param simulator The simulation to record.
+     * @param keyframeInterval How many steps between keyframes.
+     * @throws IOException if the journal or its index cannot be written.
+     */
+    public JournalWriter(Path path, Simulator simulator, int keyframeInterval) throws IOException {
+        if (keyframeInterval < 1) {
+            throw new IllegalArgumentException("Keyframes must be at least one step apart, not " + keyframeInterval);
+        }
+        this.keyframeInterval = keyframeInterval;
+        Field field = simulator.getField();
+        animals = new byte[field.getSize()];
+        plants = new int[field.getSize()];
+        lastStep = -1;
+        record = new byte[1024];
+        prefix = ByteBuffer.allocate(5);
+        indexEntry = ByteBuffer.allocate(INDEX_ENTRY_BYTES);
+
+        journal = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        index = FileChannel.open(path.resolveSibling(path.getFileName() + INDEX_SUFFIX), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        ByteBuffer header = ByteBuffer.allocate(4 * Integer.BYTES);
+        header.putInt(MAGIC).putInt(VERSION).putInt(field.getDepth()).putInt(field.getWidth()).flip();
+        writeFully(journal, header);
+        position = header.limit();
+        record(simulator);
+    }
+
+    /**
+     * Record the simulation's latest step.
+     * @param simulator The simulation being recorded.
+     * @throws UncheckedIOException if the journal cannot be written.
+     */
+    @Override
+    public void simulationUpdated(Simulator simulator) {
+        try {
+            record(simulator);
+        }
+        catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Close the journal and its index.
+     * @throws IOException if they cannot be closed.
+     */
+    public void close() throws IOException {
+        journal.close();
+        index.close();
+    }
+
+    /**
+     * Append a record of the simulation's current step: a keyframe when one is due, or when the
+     * step does not follow the last one recorded, as after a reset; otherwise the changes.
+     */
+    private void record(Simulator simulator) throws IOException {
+        int step = simulator.getStep();
+        boolean keyframe = lastStep < 0 || step != lastStep + 1 || step % keyframeInterval == 0;
+        if (keyframe) {
+            Arrays.fill(animals, Species.EMPTY);
+            Arrays.fill(plants, 0);
+            weather = null;
+        }
+        lastStep = step;
+
+        length = 0;
+        putByte(keyframe ? KEYFRAME : DELTA);
+        putVarInt(step);
+        Weather currentWeather = simulator.getWeather();
+        boolean weatherChanged = currentWeather != null && currentWeather != weather;
+        putByte((simulator.isDay() ? DAY : 0) | (weatherChanged ? WEATHER : 0));
+        if (weatherChanged) {
+            byte[] bytes = currentWeather.getDescription().getBytes(StandardCharsets.UTF_8);
+            putVarInt(bytes.length);
+            for (byte b : bytes) {
+                putByte(b);
+            }
+            weather = currentWeather;
+        }
+
+        Field field = simulator.getField();
+        int previous = -1;
+        for (int row = 0; row < field.getDepth(); row++) {
+            for (int tile = row / Field.TILE_SIZE * field.getTilesAcross(), firstCol = 0; firstCol < field.getWidth();
+                 tile++, firstCol += Field.TILE_SIZE) {
+                if (keyframe ? field.isTileEmpty(tile) : !field.tileChangedSince(tile, animalMark)) {
+                    continue;
+                }
+                int end = field.cellOf(row, Math.min(firstCol + Field.TILE_SIZE, field.getWidth()));
+                for (int cell = field.cellOf(row, firstCol); cell < end; cell++) {
+                    byte code = field.getCodeAt(cell);
+                    if (code != animals[cell]) {
+                        putVarLong((long) (cell - previous) << Species.CODE_BITS | code);
+                        animals[cell] = code;
+                        previous = cell;
+                    }
+                }
+            }
+        }
+        putVarInt(0);
+        animalMark = field.markChanges();
+
+        PlantLayer living = simulator.getPlants();
+        Field plantField = living.getField();
+        previous = -1;
+        for (int row = 0; row < plantField.getDepth(); row++) {
+            for (int tile = row / Field.TILE_SIZE * plantField.getTilesAcross(), firstCol = 0; firstCol < plantField.getWidth();
+                 tile++, firstCol += Field.TILE_SIZE) {
+                if (keyframe ? plantField.isTileEmpty(tile) : !plantField.tileChangedSince(tile, plantMark)) {
+                    continue;
+                }
+                int end = plantField.cellOf(row, Math.min(firstCol + Field.TILE_SIZE, plantField.getWidth()));
+                for (int cell = plantField.cellOf(row, firstCol); cell < end; cell++) {
+                    int plantNow = living.hasPlant(cell) ? living.getEatenCounter(cell) + 1 : 0;
+                    if (plantNow != plants[cell]) {
+                        putVarInt(cell - previous);
+                        putVarInt(plantNow);
+                        plants[cell] = plantNow;
+                        previous = cell;
+                    }
+                }
+            }
+        }
+        putVarInt(0);
+        plantMark = plantField.markChanges();
+
+        long start = position;
+        prefix.clear();
+        int value = length;
+        while ((value & ~0x7F) != 0) {
+            prefix.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        prefix.put((byte) value).flip();
+        position += prefix.remaining() + length;
+        writeFully(journal, prefix);
+        writeFully(journal, ByteBuffer.wrap(record, 0, length));
+        if (keyframe) {
+            indexEntry.clear();
+            indexEntry.putInt(step).putLong(start).flip();
+            writeFully(index, indexEntry);
+        }
+    }
+
+    /**
+     * Add a byte to the record being made.
+     */
+    private void putByte(int b) {
+        if (length == record.length) {
+            record = Arrays.copyOf(record, record.length * 2);
+        }
+        record[length++] = (byte) b;
+    }
+
+    /**
+     * Add a non-negative int to the record being made, seven bits to a byte, lowest first.
+     */
+    private void putVarInt(int value) {
+        while ((value & ~0x7F) != 0) {
+            putByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        putByte(value);
+    }
+
+    /**
+     * Add a non-negative long to the record being made, seven bits to a byte, lowest first;
+     * a long that would fit in an int is written the same as by putVarInt.
+     */
+    private void putVarLong(long value) {
+        while ((value & ~0x7FL) != 0) {
+            putByte((int) (value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        putByte((int) value);
+    }
+
+    /**
+     * Write the whole of a buffer to a channel.
+     */
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
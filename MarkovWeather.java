@@ -0,0 +1,66 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * A weather schedule in which the chance of each weather depends on the weather before it,
+ * given by a transition matrix. The first weather of a run is picked with the same chance
+ * for each.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class MarkovWeather implements WeatherSchedule {
+    private static final Weather[] WEATHERS = Weather.values();
+    // How far the sum of a row may be from 1.
+    private static final double TOLERANCE = 1e-9;
+
+    // The running totals of each row of the matrix, indexed by the ordinals of the weather
+    // before and after a change, with the last of each row exactly 1.
+    private final double[][] cumulative;
+
+    /**
+     * Create a schedule from a transition matrix.
+     * @param transitions The chance of changing from each weather to each weather, indexed by
+     *                    their ordinals; every row must sum to 1.
+     * @throws IllegalArgumentException if the matrix is the wrong size or a row is not a set of chances.
+     */
+    public MarkovWeather(double[][] transitions) {
+        if (transitions.length != WEATHERS.length) {
+            throw new IllegalArgumentException("Need a row for each of the " + WEATHERS.length
+                    + " weathers, not " + transitions.length);
+        }
+        cumulative = new double[WEATHERS.length][WEATHERS.length];
+        for (int from = 0; from < WEATHERS.length; from++) {
+            if (transitions[from].length != WEATHERS.length) {
+                throw new IllegalArgumentException("Row " + (from + 1) + " needs " + WEATHERS.length
+                        + " chances, not " + transitions[from].length);
+            }
+            double total = 0;
+            for (int to = 0; to < WEATHERS.length; to++) {
+                double chance = transitions[from][to];
+                if (!(chance >= 0 && chance <= 1)) {
+                    throw new IllegalArgumentException("Chances must be between 0 and 1, not " + chance);
+                }
+                total += chance;
+                cumulative[from][to] = total;
+            }
+            if (Math.abs(total - 1) > TOLERANCE) {
+                throw new IllegalArgumentException("Row " + (from + 1) + " must sum to 1, not " + total);
+            }
+            cumulative[from][WEATHERS.length - 1] = 1;
+        }
+    }
+
+    @Override
+    public Weather next(Weather current, RandomGenerator rand) {
+        if (current == null) {
+            return WEATHERS[rand.nextInt(WEATHERS.length)];
+        }
+        double[] row = cumulative[current.ordinal()];
+        double draw = rand.nextDouble();
+        int to = 0;
+        while (draw >= row[to]) {
+            to++;
+        }
+        return WEATHERS[to];
+    }
+}
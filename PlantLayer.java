@@ -0,0 +1,292 @@
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * The plants of the simulation. Plants never move, so rather than being objects they are kept
+ * as two bytes per cell: the plant field's species code, which says whether the cell has a plant
+ * and keeps the plants counted and hashed like the animals, and the number of times the plant
+ * has been eaten.
+ *
+ * Plants are spawned randomly at first but won't move throughout the whole simulation;
+ * they can be eaten, and during the day each one may seed the free cells around it.
+ * Regrowth is a sweep over a block of rows and columns, so the whole field, or one tile
+ * of it, is grown in a single pass.
+ *
+ * A plant hemmed in by other plants can never seed, so the sweep only visits the frontier:
+ * a bit set of the cells that may hold a plant with a free neighbour. A seedling's cell is
+ * added to it, and so are the neighbours of a plant eaten to death; the sweep drops the cells
+ * it finds empty or hemmed in, without drawing random numbers for them. Once most of the
+ * field is covered, the daily sweep costs in proportion to the frontier rather than to every
+ * plant. The bits are set and cleared atomically, as tiles stepped at once share words of it.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class PlantLayer {
+    // The most times a plant can be eaten and live, so that the count fits beside the SOWN bit.
+    public static final int MAX_TIMES_EATEN = 127;
+    // The count a new plant starts with.
+    public static final int STARTING_EATEN_COUNTER = 4;
+    // Marks a seedling sown during the current regrowth, so that it does not seed until the next.
+    private static final byte SOWN = (byte) 0x80;
+    private static final int COUNTER_MASK = 0x7F;
+
+    // Scratch array for the free neighbours of a plant, reused so that regrowth allocates nothing.
+    private static final ThreadLocal<int[]> freeCells = ThreadLocal.withInitial(() -> new int[Field.MAX_ADJACENT]);
+
+    // Which cells have a plant, holding species codes only.
+    private final Field field;
+    // How many times the plant in each cell has been eaten, with SOWN set on new seedlings; 0 where there is none.
+    private final byte[] eaten;
+    private final int width;
+    // The cells that may hold a plant with a free neighbour, a bit per cell in row order; every
+    // such plant's bit is set, but a set bit may also be left on an empty or hemmed in cell.
+    private final AtomicLongArray frontier;
+
+    private final double regrowthProbability;
+    private final int maxSeed;
+    private final int maxTimesEaten;
+
+    /**
+     * Create a layer with no plants.
+     * @param config The base statistics of the simulation.
+     * @param depth The depth of the field.
+     * @param width The width of the field.
+     */
+    public PlantLayer(Configuration config, int depth, int width) {
+        field = new Field(depth, width, false);
+        eaten = new byte[field.getSize()];
+        this.width = width;
+        frontier = new AtomicLongArray((eaten.length + Long.SIZE - 1) / Long.SIZE);
+        regrowthProbability = config.getPlantRegrowthProbability();
+        maxSeed = config.getPlantMaxSeed();
+        maxTimesEaten = config.getMaxTimesEaten();
+    }
+
+    /**
+     * @return The field of plant codes, for counting and drawing the plants.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * Remove every plant. Only the tiles of the field that have plants are visited.
+     */
+    public void clear() {
+        for (int tile = 0; tile < field.getTileCount(); tile++) {
+            if (field.isTileEmpty(tile)) {
+                continue;
+            }
+            int firstRow = tile / field.getTilesAcross() * Field.TILE_SIZE;
+            int firstCol = tile % field.getTilesAcross() * Field.TILE_SIZE;
+            int endRow = Math.min(firstRow + Field.TILE_SIZE, field.getDepth());
+            int endCol = Math.min(firstCol + Field.TILE_SIZE, width);
+            for (int row = firstRow; row < endRow; row++) {
+                Arrays.fill(eaten, row * width + firstCol, row * width + endCol, (byte) 0);
+            }
+        }
+        field.clear();
+        for (int word = 0; word < frontier.length(); word++) {
+            frontier.set(word, 0);
+        }
+    }
+
+    /**
+     * @param cell A cell index.
+     * @return true if the cell has a plant.
+     */
+    public boolean hasPlant(int cell) {
+        return field.getCodeAt(cell) == Species.PLANT.getCode();
+    }
+
+    /**
+     * Put a new plant in a cell.
+     * @param cell The index of the cell.
+     */
+    public void sow(int cell) {
+        sow(cell, STARTING_EATEN_COUNTER);
+    }
+
+    /**
+     * Put a plant that has been eaten the given number of times in a cell, as when a saved
+     * simulation is resumed.
+     * @param cell The index of the cell.
+     * @param eatenCounter How many times it has been eaten, counting from the four it starts with.
+     */
+    public void sow(int cell, int eatenCounter) {
+        if (eatenCounter < 0 || eatenCounter > MAX_TIMES_EATEN) {
+            throw new IllegalArgumentException("A plant cannot have been eaten " + eatenCounter + " times");
+        }
+        field.place(cell, Species.PLANT);
+        eaten[cell] = (byte) eatenCounter;
+        addToFrontier(cell);
+    }
+
+    /**
+     * @param cell A cell index.
+     * @return How many times the plant in the cell has been eaten, counting from the four it
+     *         starts with, or 0 if there is none.
+     */
+    public int getEatenCounter(int cell) {
+        return eaten[cell] & COUNTER_MASK;
+    }
+
+    /**
+     * Eat the plant in a cell, if there is one. A plant eaten more than the most times it can be dies.
+     * @param cell The index of the cell.
+     * @return true if there was a plant to eat.
+     */
+    public boolean eat(int cell) {
+        if (!hasPlant(cell)) {
+            return false;
+        }
+        int eatenCounter = getEatenCounter(cell) + 1;
+        if (eatenCounter > maxTimesEaten) {
+            field.clear(cell);
+            eaten[cell] = 0;
+            // Every plant around the cell now has a free neighbour.
+            int row = field.rowOf(cell);
+            int col = field.colOf(cell);
+            for (int r = Math.max(row - 1, 0); r <= Math.min(row + 1, field.getDepth() - 1); r++) {
+                for (int c = Math.max(col - 1, 0); c <= Math.min(col + 1, width - 1); c++) {
+                    addToFrontier(r * width + c);
+                }
+            }
+        }
+        else {
+            eaten[cell] = (byte) (eatenCounter | (eaten[cell] & SOWN));
+            field.markChanged(cell);
+        }
+        return true;
+    }
+
+    /**
+     * Let every plant in the field seed the free cells around it.
+     */
+    public void regrow() {
+        regrow(0, field.getDepth(), 0, width);
+        endRegrowth();
+    }
+
+    /**
+     * Let every plant in a block of rows and columns seed the free cells around it, which may
+     * lie just outside the block. The random numbers are drawn from the current thread's
+     * generator, a cell at a time in row order. Seedlings sown here do not seed until after
+     * endRegrowth has been called.
+     *
+     * @param firstRow The first row of the block.
+     * @param endRow The row after the last.
+     * @param firstCol The first column of the block.
+     * @param endCol The column after the last.
+     */
+    public void regrow(int firstRow, int endRow, int firstCol, int endCol) {
+        RandomGenerator rand = Randomizer.getRandom();
+        int[] free = freeCells.get();
+        for (int row = firstRow; row < endRow; row++) {
+            int start = row * width + firstCol;
+            int end = row * width + endCol;
+            for (int cell = nextInFrontier(start, end); cell < end; cell = nextInFrontier(cell + 1, end)) {
+                // Seedlings have the SOWN bit set, which makes their byte negative; they stay on
+                // the frontier so that endRegrowth finds them.
+                if (eaten[cell] < 0) {
+                    continue;
+                }
+                if (!hasPlant(cell) || !field.hasFreeAdjacentCell(cell)) {
+                    removeFromFrontier(cell);
+                }
+                else {
+                    int freeCount = field.freeAdjacentCells(cell, free);
+                    int seedlings = seeds(rand);
+                    for (int b = 0; b < seedlings && b < freeCount; b++) {
+                        field.place(free[b], Species.PLANT);
+                        eaten[free[b]] = (byte) (STARTING_EATEN_COUNTER | SOWN);
+                        addToFrontier(free[b]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Let the seedlings sown since the last call seed in the next regrowth. Every seedling
+     * is on the frontier, so only the frontier is visited.
+     */
+    public void endRegrowth() {
+        for (int cell = nextInFrontier(0, eaten.length); cell < eaten.length; cell = nextInFrontier(cell + 1, eaten.length)) {
+            eaten[cell] &= COUNTER_MASK;
+        }
+    }
+
+    /**
+     * Check that every plant with a free neighbour is on the frontier, and that no seedling
+     * is still waiting for endRegrowth.
+     * @throws IllegalStateException if either is not so.
+     */
+    public void verifyFrontier() {
+        for (int cell = 0; cell < eaten.length; cell++) {
+            if (eaten[cell] < 0) {
+                throw new IllegalStateException("The seedling in cell " + cell + " was left out of endRegrowth");
+            }
+            if (hasPlant(cell) && field.hasFreeAdjacentCell(cell) && nextInFrontier(cell, cell + 1) != cell) {
+                throw new IllegalStateException("The plant in cell " + cell + " has a free neighbour but is not on the frontier");
+            }
+        }
+    }
+
+    /**
+     * Find the first cell on the frontier in a range of cells.
+     * @param from The first cell of the range.
+     * @param end The cell after the last.
+     * @return The first cell on the frontier, or end if there is none.
+     */
+    private int nextInFrontier(int from, int end) {
+        if (from >= end) {
+            return end;
+        }
+        int word = from >>> 6;
+        long bits = frontier.get(word) & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                int cell = (word << 6) + Long.numberOfTrailingZeros(bits);
+                return Math.min(cell, end);
+            }
+            word++;
+            if (word << 6 >= end) {
+                return end;
+            }
+            bits = frontier.get(word);
+        }
+    }
+
+    /**
+     * Put a cell on the frontier.
+     */
+    private void addToFrontier(int cell) {
+        long bit = 1L << cell;
+        int word = cell >>> 6;
+        if ((frontier.get(word) & bit) == 0) {
+            frontier.getAndAccumulate(word, bit, (bits, add) -> bits | add);
+        }
+    }
+
+    /**
+     * Take a cell off the frontier.
+     */
+    private void removeFromFrontier(int cell) {
+        frontier.getAndAccumulate(cell >>> 6, ~(1L << cell), (bits, keep) -> bits & keep);
+    }
+
+    /**
+     * produces a randomised number under the maximum number of seeds
+     * @return number of seeds a plant produces
+     */
+    private int seeds(RandomGenerator rand) {
+        int seeds = 0;
+        if (rand.nextDouble() <= regrowthProbability) {
+            seeds = rand.nextInt(maxSeed) + 1;
+        }
+        return seeds;
+    }
+}
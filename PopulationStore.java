@@ -0,0 +1,348 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The state of the animals on a field, kept in parallel arrays of primitives instead of in
+ * the animals themselves. Each animal owns one slot for as long as it is in the simulation,
+ * and the Animal objects are views that read and write their slot. Passes over the whole
+ * population, such as counting the diseased animals, then read one small array from start
+ * to end instead of visiting every animal object.
+ *
+ * The arrays are split into pages of PAGE_SIZE slots that never move once made, so new slots
+ * can be taken while other threads are updating their own, as they are in a parallel step.
+ * Taking and releasing slots is synchronized; reading and writing a slot is not, and is only
+ * done by whoever is giving that animal its turn.
+ *
+ * The store also keeps the animals that have died, by species, so that births can
+ * reuse them instead of making new objects. Only the simulation that owns an entity may hand it
+ * back, once it has dropped the entity from its lists; since every field has its own store, a
+ * reused entity always goes back to the field it came from.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class PopulationStore {
+    // The number of slots in each page, a power of two.
+    private static final int PAGE_BITS = 12;
+    public static final int PAGE_SIZE = 1 << PAGE_BITS;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // The bits of a slot's flags.
+    private static final byte ALIVE = 1;
+    private static final byte FEMALE = 2;
+    private static final byte DISEASED = 4;
+
+    // The most dead entities of one species kept for reuse; any more are left to the garbage collector.
+    private static final int MAX_RECYCLED = 1 << 14;
+
+    // The field the animals live on.
+    private final Field field;
+    // The pages made so far. A new array replaces this one when a page is added, but the pages themselves never move.
+    private volatile Page[] pages;
+    // The number of slots ever handed out; slots from here on have not been used yet.
+    private int highWater;
+    // Released slots waiting to be handed out again, used last in first out.
+    private int[] freeSlots;
+    private int freeCount;
+
+    // Dead entities waiting to be reborn, indexed by species code.
+    private final List<List<Object>> recycled;
+    // How many entities of each species have been made new and how many reused, indexed by species code.
+    private final long[] created;
+    private final long[] reused;
+
+    /**
+     * Create an empty store for the animals on a field.
+     * @param field The field the animals live on.
+     */
+    public PopulationStore(Field field) {
+        this.field = field;
+        pages = new Page[0];
+        freeSlots = new int[16];
+        recycled = new ArrayList<>();
+        for(int code = 0; code < Species.CODE_COUNT; code++) {
+            recycled.add(new ArrayList<>());
+        }
+        created = new long[Species.CODE_COUNT];
+        reused = new long[Species.CODE_COUNT];
+    }
+
+    /**
+     * Take a slot for a new animal. The animal starts alive, male, healthy and aged zero,
+     * with no cell.
+     * @param species The animal's species.
+     * @return The animal's slot.
+     */
+    public synchronized int allocate(Species species) {
+        int slot;
+        if(freeCount > 0) {
+            slot = freeSlots[--freeCount];
+        }
+        else {
+            slot = highWater++;
+            if((slot >>> PAGE_BITS) == pages.length) {
+                Page[] grown = new Page[pages.length + 1];
+                System.arraycopy(pages, 0, grown, 0, pages.length);
+                grown[pages.length] = new Page();
+                pages = grown;
+            }
+        }
+        created[species.getCode()]++;
+        initialise(slot, species.getCode());
+        return slot;
+    }
+
+    /**
+     * Bring a dead animal's slot back to the state of a newborn's, keeping its species.
+     * @param slot The slot of an animal that is being reused.
+     */
+    public void revive(int slot) {
+        initialise(slot, getSpeciesCode(slot));
+    }
+
+    /**
+     * Set a slot to the state of a newborn of the given species: alive, male, healthy and aged zero,
+     * with no cell.
+     */
+    private void initialise(int slot, byte code) {
+        Page page = pages[slot >>> PAGE_BITS];
+        int i = slot & PAGE_MASK;
+        page.species[i] = code;
+        page.flags[i] = ALIVE;
+        page.cell[i] = -1;
+        page.age[i] = 0;
+        page.foodLevel[i] = 0;
+        page.hunger[i] = 0;
+        page.diseaseCounter[i] = 0;
+    }
+
+    /**
+     * Give a slot back once its animal has left the simulation for good.
+     * Nothing may use the slot afterwards, as it will be handed to a newborn.
+     * @param slot The slot to release.
+     */
+    public synchronized void release(int slot) {
+        Page page = pages[slot >>> PAGE_BITS];
+        page.species[slot & PAGE_MASK] = Species.EMPTY;
+        page.flags[slot & PAGE_MASK] = 0;
+        if(freeCount == freeSlots.length) {
+            int[] grown = new int[freeSlots.length * 2];
+            System.arraycopy(freeSlots, 0, grown, 0, freeCount);
+            freeSlots = grown;
+        }
+        freeSlots[freeCount++] = slot;
+    }
+
+    /**
+     * Release every slot. The pages are kept for reuse.
+     */
+    public synchronized void clear() {
+        for(List<Object> entities : recycled) {
+            entities.clear();
+        }
+        for(Page page : pages) {
+            Arrays.fill(page.species, Species.EMPTY);
+            Arrays.fill(page.flags, (byte) 0);
+        }
+        highWater = 0;
+        freeCount = 0;
+    }
+
+    /**
+     * Keep a dead entity so that a birth of the same species can reuse it.
+     * A dead animal keeps its slot while it waits.
+     * @param entity The dead entity, already dropped from the simulation.
+     * @param species The entity's species.
+     * @return true if the entity was kept, false if enough of its species are already waiting.
+     */
+    public synchronized boolean recycle(Object entity, Species species) {
+        List<Object> entities = recycled.get(species.getCode());
+        if(entities.size() >= MAX_RECYCLED) {
+            return false;
+        }
+        entities.add(entity);
+        return true;
+    }
+
+    /**
+     * Take a dead entity of the given species to be reborn, if there is one.
+     * When there is none, the caller makes a new entity, and it is counted as created.
+     * @param species The species of the entity wanted.
+     * @return A dead entity for the caller to bring back to life, or null if there is none.
+     */
+    public synchronized Object reuse(Species species) {
+        List<Object> entities = recycled.get(species.getCode());
+        if(entities.isEmpty()) {
+            return null;
+        }
+        reused[species.getCode()]++;
+        return entities.remove(entities.size() - 1);
+    }
+
+    /**
+     * @param species A species.
+     * @return How many entities of the species have been made new since the store was made.
+     */
+    public synchronized long getCreated(Species species) {
+        return created[species.getCode()];
+    }
+
+    /**
+     * @param species A species.
+     * @return How many births of the species have reused a dead entity since the store was made.
+     */
+    public synchronized long getReused(Species species) {
+        return reused[species.getCode()];
+    }
+
+    /**
+     * @return The number of slots in use, including those of animals that have died
+     *         but have not been released yet.
+     */
+    public synchronized int size() {
+        return highWater - freeCount;
+    }
+
+    /**
+     * @return The field the animals live on.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * Count the living animals of each species in one pass over the slots.
+     * @param counts An array of at least Species.CODE_COUNT elements, indexed by species code,
+     *               to which the counts are added.
+     */
+    public void countAlive(int[] counts) {
+        countFlagged(ALIVE, counts);
+    }
+
+    /**
+     * Count the living, diseased animals of each species in one pass over the slots.
+     * @param counts An array of at least Species.CODE_COUNT elements, indexed by species code,
+     *               to which the counts are added.
+     */
+    public void countDiseased(int[] counts) {
+        countFlagged((byte) (ALIVE | DISEASED), counts);
+    }
+
+    /**
+     * Count the slots of each species that have all the given flags set.
+     */
+    private void countFlagged(byte wanted, int[] counts) {
+        Page[] pages;
+        int remaining;
+        synchronized(this) {
+            pages = this.pages;
+            remaining = highWater;
+        }
+        for(int p = 0; remaining > 0; p++, remaining -= PAGE_SIZE) {
+            byte[] species = pages[p].species;
+            byte[] flags = pages[p].flags;
+            int end = Math.min(remaining, PAGE_SIZE);
+            for(int i = 0; i < end; i++) {
+                if((flags[i] & wanted) == wanted) {
+                    counts[species[i]]++;
+                }
+            }
+        }
+    }
+
+    public byte getSpeciesCode(int slot) {
+        return pages[slot >>> PAGE_BITS].species[slot & PAGE_MASK];
+    }
+
+    public boolean isAlive(int slot) {
+        return (pages[slot >>> PAGE_BITS].flags[slot & PAGE_MASK] & ALIVE) != 0;
+    }
+
+    public void setDead(int slot) {
+        pages[slot >>> PAGE_BITS].flags[slot & PAGE_MASK] &= ~ALIVE;
+    }
+
+    public boolean isFemale(int slot) {
+        return (pages[slot >>> PAGE_BITS].flags[slot & PAGE_MASK] & FEMALE) != 0;
+    }
+
+    public void setFemale(int slot, boolean female) {
+        setFlag(slot, FEMALE, female);
+    }
+
+    public boolean isDiseased(int slot) {
+        return (pages[slot >>> PAGE_BITS].flags[slot & PAGE_MASK] & DISEASED) != 0;
+    }
+
+    public void setDiseased(int slot, boolean diseased) {
+        setFlag(slot, DISEASED, diseased);
+    }
+
+    public int getCell(int slot) {
+        return pages[slot >>> PAGE_BITS].cell[slot & PAGE_MASK];
+    }
+
+    public void setCell(int slot, int cell) {
+        pages[slot >>> PAGE_BITS].cell[slot & PAGE_MASK] = cell;
+    }
+
+    public int getAge(int slot) {
+        return pages[slot >>> PAGE_BITS].age[slot & PAGE_MASK];
+    }
+
+    public void setAge(int slot, int age) {
+        pages[slot >>> PAGE_BITS].age[slot & PAGE_MASK] = age;
+    }
+
+    public int getFoodLevel(int slot) {
+        return pages[slot >>> PAGE_BITS].foodLevel[slot & PAGE_MASK];
+    }
+
+    public void setFoodLevel(int slot, int foodLevel) {
+        pages[slot >>> PAGE_BITS].foodLevel[slot & PAGE_MASK] = foodLevel;
+    }
+
+    public int getHunger(int slot) {
+        return pages[slot >>> PAGE_BITS].hunger[slot & PAGE_MASK];
+    }
+
+    public void setHunger(int slot, int hunger) {
+        pages[slot >>> PAGE_BITS].hunger[slot & PAGE_MASK] = hunger;
+    }
+
+    public int getDiseaseCounter(int slot) {
+        return pages[slot >>> PAGE_BITS].diseaseCounter[slot & PAGE_MASK];
+    }
+
+    public void setDiseaseCounter(int slot, int diseaseCounter) {
+        pages[slot >>> PAGE_BITS].diseaseCounter[slot & PAGE_MASK] = diseaseCounter;
+    }
+
+    /**
+     * Set or clear one of a slot's flags.
+     */
+    private void setFlag(int slot, byte flag, boolean value) {
+        byte[] flags = pages[slot >>> PAGE_BITS].flags;
+        int i = slot & PAGE_MASK;
+        if(value) {
+            flags[i] |= flag;
+        }
+        else {
+            flags[i] &= ~flag;
+        }
+    }
+
+    /**
+     * One page of slots: an array per piece of state, each PAGE_SIZE long.
+     */
+    private static class Page {
+        final byte[] species = new byte[PAGE_SIZE];         // The species code, or Species.EMPTY if the slot is free.
+        final byte[] flags = new byte[PAGE_SIZE];           // ALIVE, FEMALE and DISEASED.
+        final int[] cell = new int[PAGE_SIZE];              // The index of the animal's cell (row * width + col), or -1.
+        final int[] age = new int[PAGE_SIZE];
+        final int[] foodLevel = new int[PAGE_SIZE];         // Predators only.
+        final int[] hunger = new int[PAGE_SIZE];            // Prey only; the lower the better.
+        final int[] diseaseCounter = new int[PAGE_SIZE];    // Whales only: steps without a helper fish nearby.
+    }
+}
@@ -1,6 +1,4 @@
-import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
 
 /**
  * A simple model for predator species to inherit from.
@@ -9,48 +7,46 @@ import java.util.Random;
  * @author David J. Barnes and Michael Kölling and Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
  * @version 2022.03.01
  */
-public class Predator extends Animal {
-    // class variables
-    private  int BREEDING_AGE;
-    private int MAX_AGE;
-    private double BREEDING_PROBABILITY;
-    private int MAX_LITTER_SIZE;
-    private static int STARTING_FOOD_LEVEL;
-
-    // A shared random number generator to control breeding.
-    protected static Random rand = Randomizer.getRandom();
-
-    // instance fields
-    private int age;
-    private int foodLevel;
-
+public class Predator extends Animal implements TimedAnimal {
     /**
-     * Create a predator as a newborn (age zero and not hungry) or with a random age and food level.
+     * Create a predator at age zero, either as a newborn (not hungry) or, as when the field is
+     * first populated, with a random food level. A predator's age always starts at zero.
      *
-     * @param randomAge If true, the predator will have random age and hunger level.
+     * @param profile The characteristics of the predator's species.
+     * @param randomAge If true, the predator will have a random food level rather than a full one.
      * @param field The field currently occupied.
-     * @param location The location within the field.
+     * @param cell The index of the cell within the field.
      */
-    public Predator(boolean randomAge, Field field, Location location, boolean gender) {
-        super(field, location);
-        STARTING_FOOD_LEVEL = getBaseValue("startingFoodLevel");
+    public Predator(SpeciesProfile profile, boolean randomAge, Field field, int cell, boolean gender) {
+        super(profile, field, cell);
+        setAge(0);
         if(randomAge) {
-            setAge(rand.nextInt(20)+1);
-            foodLevel = rand.nextInt(STARTING_FOOD_LEVEL);
+            setFoodLevel(Randomizer.getRandom().nextInt(profile.getStartingFoodLevel()));
         }
         else{
-            age = 0;
-            foodLevel = STARTING_FOOD_LEVEL;
+            setFoodLevel(profile.getStartingFoodLevel());
         }
         setGender(gender);
     }
 
+    /**
+     * Bring a dead predator back as a newborn: age zero and not hungry.
+     * @param cell The index of the newborn's cell.
+     * @param gender The newborn's gender.
+     */
+    protected void reborn(int cell, boolean gender) {
+        reborn(cell);
+        setAge(0);
+        setFoodLevel(profile.getStartingFoodLevel());
+        setGender(gender);
+    }
+
     /**
      * Increase the age of the predator, potentially resulting in its death
      */
     protected void incrementAge() {
-        age++;
-        if(age > MAX_AGE) {
+        setAge(getAge() + 1);
+        if(getAge() > profile.getMaxAge()) {
             setDead();
         }
     }
@@ -59,34 +55,49 @@ public class Predator extends Animal {
      * Make this predator more hungry, potentially resulting in its death
      */
     protected void incrementHunger() {
-        foodLevel--;
-        if(foodLevel <= 0) {
+        setFoodLevel(getFoodLevel() - 1);
+        if(getFoodLevel() <= 0) {
             setDead();
         }
     }
 
+    /**
+     * A predator dies in the turn its age passes the species' maximum or its food runs out.
+     * @return The number of turns of ageing and hunger alone it would survive.
+     */
+    @Override
+    public int timedTurnsLeft() {
+        return Math.min(profile.getMaxAge() - getAge(), getFoodLevel() - 1);
+    }
+
+    /**
+     * Age the predator and use up its food by a number of turns at once.
+     * @param turns The number of turns, fewer than timedTurnsLeft.
+     */
+    @Override
+    public void passTimedTurns(int turns) {
+        setAge(getAge() + turns);
+        setFoodLevel(getFoodLevel() - turns);
+    }
+
     /**
      * Look for prey adjacent to the current location.
      * Only the first live instance of a prey species is eaten.
-     * @return The location of prey, or null if no prey was present.
+     * @return The cell of the prey, or -1 if no prey was present.
      */
-    protected Location findFood(){
+    protected int findFood(){
         Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
-        Iterator<Location> it = adjacent.iterator();
-        while(it.hasNext()) {
-            Location where = it.next();
-            Object animal = field.getObjectAt(where);
-            if(animal instanceof Prey) {
-                Animal prey = (Prey) animal;
-                if(prey.isAlive()) {
-                    prey.setDead();
-                    foodLevel += prey.getNutritionalValue();
-                    return where;
-                }
+        int[] adjacent = getAdjacentBuffer();
+        int count = field.adjacentCellsMatching(getCell(), Species.PREY_MASK, adjacent);
+        for(int i = 0; i < count; i++) {
+            Animal prey = (Animal) field.getObjectAt(adjacent[i]);
+            if(prey.isAlive()) {
+                prey.setDead();
+                setFoodLevel(getFoodLevel() + prey.getNutritionalValue());
+                return adjacent[i];
             }
         }
-        return null;
+        return -1;
     }
 
     /**
@@ -96,14 +107,8 @@ public class Predator extends Animal {
      */
     protected void checkDisease(){
         if(isAlive()) {
-            Field field = getField();
-            List<Location> adjacent = field.adjacentLocations(getLocation());
-
-            for (Location where : adjacent) {
-                Object animal = field.getObjectAt(where);
-                if (animal instanceof Animal && ((Animal) animal).getIsDiseased()) {
-                    this.setIsDiseased(true);
-                }
+            if (!getIsDiseased() && getField().hasDiseasedNeighbour(getCell())) {
+                this.setIsDiseased(true);
             }
             checkDiseaseDeath();
         }
@@ -116,8 +121,8 @@ public class Predator extends Animal {
      */
     protected int breed() {
         int births = 0;
-        if(canBreed() && rand.nextDouble() <= BREEDING_PROBABILITY) {
-            births = rand.nextInt(MAX_LITTER_SIZE) + 1;
+        if(canBreed() && Randomizer.getRandom().nextDouble() <= profile.getBreedingProbability()) {
+            births = Randomizer.getRandom().nextInt(profile.getMaxLitterSize()) + 1;
         }
         return births;
     }
@@ -128,14 +133,14 @@ public class Predator extends Animal {
      */
     protected boolean canBreed()
     {
-        return age >= BREEDING_AGE;
+        return getAge() >= profile.getBreedingAge();
     }
 
     /**
      * @return The food level of the predator
      */
     public int getFoodLevel() {
-        return foodLevel;
+        return getPopulation().getFoodLevel(getSlot());
     }
 
     /**
@@ -143,7 +148,7 @@ public class Predator extends Animal {
      * @param newFoodLevel updated food level
      */
     public void setFoodLevel(int newFoodLevel){
-        foodLevel = newFoodLevel;
+        getPopulation().setFoodLevel(getSlot(), newFoodLevel);
     }
 
     /**
@@ -171,36 +176,4 @@ public class Predator extends Animal {
      * @param newAnimals A list to receive newly born animals.
      */
     public void strongCurrentsAct(List<Animal> newAnimals) {}
-
-    /**
-     * Sets the age at which a predator can begin breeding
-     * @param age breeding age
-     */
-    public void setBREEDING_AGE(int age) {
-        this.BREEDING_AGE = age;
-    }
-
-    /**
-     * Sets the maximum number of offspring it can produce while breeding every round
-     * @param size maximum litter size
-     */
-    public void setMAX_LITTER_SIZE(int size){
-        this.MAX_LITTER_SIZE = size;
-    }
-
-    /**
-     * Sets the probability of successful reproduction when a male and female of a species meet
-     * @param probability probability of breeding
-     */
-    public void setBREEDING_PROBABILITY(double probability){
-        this.BREEDING_PROBABILITY = probability;
-    }
-
-    /**
-     * Sets the maximum age a predator can live, regardless of external factors
-     * @param age maximum age
-     */
-    public void setMAX_AGE(int age){
-        this.MAX_AGE = age;
-    }
 }
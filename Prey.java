@@ -1,5 +1,4 @@
 import java.util.List;
-import java.util.Random;
 
 /**
  * A simple model of prey species.
@@ -8,38 +7,41 @@ import java.util.Random;
  * @author David J. Barnes and Michael Kölling and Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
  * @version 2022.03.01
  */
-public class Prey extends Animal {
-    // Characteristics shared by all prey species (class variables).
-    private int BREEDING_AGE ;
-    private int MAX_AGE = 20;
-    private double BREEDING_PROBABILITY ;
-    private int MAX_LITTER_SIZE ;
+public abstract class Prey extends Animal {
+    // Random-aged prey are given an age below this, whatever their species' maximum age.
+    private static final int RANDOM_AGE_LIMIT = 20;
 
-    // A shared random number generator to control breeding.
-    private final Random rand = Randomizer.getRandom();
-
-    private int age;
-    private int hungerLevel=0; //the lower the hunger value the better
-
-    //the field that the plants eaten by prey exist on
-    protected Field plantField;
+    //the plants eaten by prey
+    protected PlantLayer plants;
 
     /**
      * Create a new prey animal with age zero (a newborn) or with a random age.
      *
+     * @param profile The characteristics of the prey's species.
      * @param randomAge If true, the prey will have a random age.
      * @param field The field currently occupied.
-     * @param location The location within the field.
+     * @param cell The index of the cell within the field.
      */
-    public Prey(boolean randomAge, Field field, Location location, boolean gender, Field plantField) {
-        super(field, location);
-        age = 0;
+    public Prey(SpeciesProfile profile, boolean randomAge, Field field, int cell, boolean gender, PlantLayer plants) {
+        super(profile, field, cell);
+        setAge(0);
         if(randomAge) {
-            age = rand.nextInt(MAX_AGE);
+            setAge(Randomizer.getRandom().nextInt(RANDOM_AGE_LIMIT));
         }
         setGender(gender);
-        this.plantField = plantField;
+        this.plants = plants;
+
+    }
 
+    /**
+     * Bring a dead prey animal back as a newborn with age zero.
+     * @param cell The index of the newborn's cell.
+     * @param gender The newborn's gender.
+     */
+    protected void reborn(int cell, boolean gender) {
+        reborn(cell);
+        setAge(0);
+        setGender(gender);
     }
 
     /**
@@ -66,8 +68,7 @@ public class Prey extends Animal {
      */
     public void strongCurrentsAct(List<Animal> newPrey) {
         if (isAlive()) {
-            Location location = this.getLocation();
-            setLocation(location);
+            setCell(getCell());
         }
     }
 
@@ -76,36 +77,20 @@ public class Prey extends Animal {
      * This could result in the prey's death.
      */
     protected void incrementAge() {
-        age++;
-        if(age > MAX_AGE) {
+        setAge(getAge() + 1);
+        if(getAge() > profile.getMaxAge()) {
             setDead();
         }
     }
 
-    /**
-     * Check whether this prey is to give birth at this step.
-     * New births will be added into free adjacent locations.
-     * @param newPrey A list to return newly born prey animals.
-     */
-    protected void giveBirth(List<Animal> newPrey) {
-        Field field = getField();
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
-        int births = breed();
-        for(int b = 0; b < births && free.size() > 0; b++) {
-            Location loc = free.remove(0);
-            Prey young = new Prey(false, field, loc, getGender(), plantField);
-            newPrey.add(young);
-        }
-    }
-
     /**
      * Generate a number representing the number of births, if breeding is possible
      * @return The number of births.
      */
     protected int breed() {
         int births = 0;
-        if(canBreed() && rand.nextDouble() <= BREEDING_PROBABILITY) {
-            births = rand.nextInt(MAX_LITTER_SIZE) + 1;
+        if(canBreed() && Randomizer.getRandom().nextDouble() <= profile.getBreedingProbability()) {
+            births = Randomizer.getRandom().nextInt(profile.getMaxLitterSize()) + 1;
         }
         return births;
     }
@@ -115,13 +100,9 @@ public class Prey extends Animal {
      * Eating plants decreases the animal's hunger level
      */
     protected void findPlant(){
-        Field field = plantField;
-        Location where = getLocation();
-        Object plant = field.getObjectAt(where);
-        if(hungerLevel>=0 && plant instanceof Plant){
-            Plant food = (Plant) plant;
-            food.incrementEatenCounter();
-            hungerLevel--; // decrease the animal's hunger level
+        int hungerLevel = getPopulation().getHunger(getSlot()); //the lower the hunger value the better
+        if(hungerLevel>=0 && plants.eat(getCell())){
+            getPopulation().setHunger(getSlot(), hungerLevel - 1); // decrease the animal's hunger level
         }
     }
 
@@ -131,46 +112,15 @@ public class Prey extends Animal {
      */
     private boolean canBreed()
     {
-        return age >= BREEDING_AGE;
-    }
-
-    /**
-     * Allows the prey's breeding age to be set
-     * @param age the preys breeding age
-     */
-    public void setBREEDING_AGE(int age) {
-        this.BREEDING_AGE = age;
-    }
-
-    /**
-     * Set the prey species' maximum litter size (the maximum number of offspring that can be produced in one turn)
-     * @param size maximum litter size
-     */
-    public void setMAX_LITTER_SIZE(int size){
-        this.MAX_LITTER_SIZE = size;
-    }
-
-    /**
-     * Set the probability of successful breeding between two compatible animals
-     * @param probability successful breeding probability
-     */
-    public void setBREEDING_PROBABILITY(double probability){
-        this.BREEDING_PROBABILITY = probability;
-    }
-
-    /**
-     * Set the maximum age that an animal can live up to, external from environmental factors
-     * @param age an animal's maximum age
-     */
-    public void setMAX_AGE(int age){
-        this.MAX_AGE = age;
+        return getAge() >= profile.getBreedingAge();
     }
 
     /**
      * increments an animal's hunger level, potentially resulting in its death
      */
     protected void incrementHunger(){
-        hungerLevel++;
+        int hungerLevel = getPopulation().getHunger(getSlot()) + 1;
+        getPopulation().setHunger(getSlot(), hungerLevel);
         if(hungerLevel > getNutritionalValue()){
             setDead();
         }
@@ -6,28 +6,41 @@ import java.util.Properties;
 
 /**
  * This class accesses the text file containing the population base statistics and allows values to be retrieved from their key.
+ * The file is only meant to be read once, when a simulation starts; see Configuration for the parsed values.
  *
  * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
  * @version 2022.03.01
  */
 
 public class PropertiesFile {
+    // The name of the file holding the base statistics
+    public static final String FILE_NAME = "population base statistics";
 
     /**
      * Accesses the property file labelled "population base statistics" and returns the value matching the inputted key
+     * Every call reads the whole file, so this should not be used while a simulation is running.
      *
      * @param name name of variable being searched for
      * @return property corresponding to the name
      */
     public String accessProperty(String name){
+        return load().getProperty(name);
+    }
+
+    /**
+     * Reads every property in the file labelled "population base statistics"
+     *
+     * @return all the properties in the file
+     * @throws IllegalStateException if the file cannot be read
+     */
+    public Properties load(){
         //create a new input stream to access the file containing the base packing list
-        try (InputStream input = new FileInputStream(getDirectory("population base statistics"))) {
+        try (InputStream input = new FileInputStream(getDirectory(FILE_NAME))) {
             Properties prop = new Properties();
             prop.load(input);
-            return prop.getProperty(name);
+            return prop;
         }catch (IOException ex) {
-            ex.printStackTrace();
-            return null;
+            throw new IllegalStateException("Could not read \"" + FILE_NAME + "\"", ex);
         }
     }
 
@@ -44,4 +57,3 @@ public class PropertiesFile {
 
 
 }
-
@@ -0,0 +1,139 @@
+import java.util.Arrays;
+
+/**
+ * An estimate of one quantile of a stream of values, such as the 5th percentile, that is updated
+ * one value at a time in constant memory. It uses the P-squared algorithm of Jain and Chlamtac,
+ * which keeps five markers whose heights follow the minimum, the quantile, the maximum and the
+ * two points half way to them, moving each towards the position it should have as values arrive.
+ * The first five values are kept exactly, so small samples give exact quantiles.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class QuantileSketch {
+    // The number of markers.
+    private static final int MARKERS = 5;
+
+    // The quantile estimated, between 0 and 1.
+    private final double quantile;
+    // The height of each marker.
+    private final double[] heights;
+    // The position of each marker among the values so far, counting from 1.
+    private final int[] positions;
+    // The position each marker should be at, and how far that moves with each value.
+    private final double[] desired;
+    private final double[] increments;
+    // How many values have been added.
+    private long count;
+
+    /**
+     * Create a sketch of one quantile.
+     * @param quantile The quantile to estimate, between 0 and 1; 0.5 is the median.
+     */
+    public QuantileSketch(double quantile) {
+        if(!(quantile >= 0 && quantile <= 1)) {
+            throw new IllegalArgumentException("A quantile must be between 0 and 1, not " + quantile);
+        }
+        this.quantile = quantile;
+        heights = new double[MARKERS];
+        positions = new int[MARKERS];
+        desired = new double[] {1, 1 + 2 * quantile, 1 + 4 * quantile, 3 + 2 * quantile, 5};
+        increments = new double[] {0, quantile / 2, quantile, (1 + quantile) / 2, 1};
+    }
+
+    /**
+     * Add one value.
+     * @param value The value to add.
+     */
+    public void add(double value) {
+        if(count < MARKERS) {
+            heights[(int) count++] = value;
+            if(count == MARKERS) {
+                Arrays.sort(heights);
+                for(int i = 0; i < MARKERS; i++) {
+                    positions[i] = i + 1;
+                }
+            }
+            return;
+        }
+        count++;
+
+        // Find the cell the value falls in, stretching the ends to take it if needed.
+        int cell;
+        if(value < heights[0]) {
+            heights[0] = value;
+            cell = 0;
+        }
+        else if(value >= heights[MARKERS - 1]) {
+            heights[MARKERS - 1] = value;
+            cell = MARKERS - 2;
+        }
+        else {
+            cell = 0;
+            while(value >= heights[cell + 1]) {
+                cell++;
+            }
+        }
+        for(int i = cell + 1; i < MARKERS; i++) {
+            positions[i]++;
+        }
+        for(int i = 0; i < MARKERS; i++) {
+            desired[i] += increments[i];
+        }
+
+        // Move the middle markers one place towards where they should be, if they can.
+        for(int i = 1; i < MARKERS - 1; i++) {
+            double offset = desired[i] - positions[i];
+            if((offset >= 1 && positions[i + 1] - positions[i] > 1)
+                    || (offset <= -1 && positions[i - 1] - positions[i] < -1)) {
+                int direction = offset > 0 ? 1 : -1;
+                double height = parabolic(i, direction);
+                if(heights[i - 1] < height && height < heights[i + 1]) {
+                    heights[i] = height;
+                }
+                else {
+                    heights[i] += direction * (heights[i + direction] - heights[i])
+                            / (positions[i + direction] - positions[i]);
+                }
+                positions[i] += direction;
+            }
+        }
+    }
+
+    /**
+     * @return The estimated quantile of the values so far, or NaN if there are none.
+     */
+    public double getQuantile() {
+        if(count == 0) {
+            return Double.NaN;
+        }
+        if(count > MARKERS) {
+            return heights[2];
+        }
+        double[] sorted = Arrays.copyOf(heights, (int) count);
+        Arrays.sort(sorted);
+        double index = quantile * (count - 1);
+        int below = (int) Math.floor(index);
+        int above = (int) Math.ceil(index);
+        return sorted[below] + (index - below) * (sorted[above] - sorted[below]);
+    }
+
+    /**
+     * @return How many values have been added.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * The height a middle marker would have after moving one place, fitted through its neighbours.
+     */
+    private double parabolic(int i, int direction) {
+        double span = positions[i + 1] - positions[i - 1];
+        double upper = (positions[i] - positions[i - 1] + direction) * (heights[i + 1] - heights[i])
+                / (positions[i + 1] - positions[i]);
+        double lower = (positions[i + 1] - positions[i] - direction) * (heights[i] - heights[i - 1])
+                / (positions[i] - positions[i - 1]);
+        return heights[i] + direction / span * (upper + lower);
+    }
+}
@@ -0,0 +1,149 @@
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * The random number streams of one simulation run, all derived from a single seed.
+ *
+ * Every stream is picked out by a key, and its seed is a mix of the run's seed and the key,
+ * so a stream does not depend on which other streams were made or in what order. That lets
+ * each part of a run (the main loop, the weather, each tile of a parallel step) have a
+ * stream of its own, and the whole run be repeated exactly from its seed.
+ *
+ * The generator algorithm can be any of those known to RandomGeneratorFactory, so the fastest
+ * one that is good enough can be chosen.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class RandomStreams {
+    // The algorithm used when none is given: joint fastest of the JDK's generators at the
+    // draws a step makes, with more state than SplittableRandom, its equal on speed.
+    public static final String DEFAULT_ALGORITHM = "Xoroshiro128PlusPlus";
+
+    // The keys of the streams used by a simulation.
+    private static final long MAIN_KEY = 1;
+    private static final long WEATHER_KEY = 2;
+    private static final long TILE_KEY = 3;
+    private static final long SPLIT_KEY = 4;
+    private static final long STEP_KEY = 5;
+
+    private final long seed;
+    private final String algorithm;
+    private final RandomGeneratorFactory<RandomGenerator> factory;
+
+    /**
+     * Create the streams of a run using the default algorithm.
+     * @param seed The seed of the run.
+     */
+    public RandomStreams(long seed) {
+        this(seed, DEFAULT_ALGORITHM);
+    }
+
+    /**
+     * Create the streams of a run.
+     * @param seed The seed of the run.
+     * @param algorithm The name of a random generator algorithm, such as "L64X128MixRandom",
+     *                  "Xoroshiro128PlusPlus", "SplittableRandom" or "Random".
+     * @throws IllegalArgumentException if the algorithm is not known.
+     */
+    public RandomStreams(long seed, String algorithm) {
+        this.seed = seed;
+        this.algorithm = algorithm;
+        this.factory = RandomGeneratorFactory.of(algorithm);
+    }
+
+    /**
+     * @return The stream for populating the field.
+     */
+    public RandomGenerator main() {
+        return stream(MAIN_KEY);
+    }
+
+    /**
+     * Return the stream for everything in one step that is not split into tiles.
+     * Each step starts a stream of its own, so a run saved between steps can be carried on
+     * from nothing more than its seed and step number.
+     * @param step The number of the step.
+     * @return The step's stream.
+     */
+    public RandomGenerator forStep(int step) {
+        return stream(STEP_KEY, step);
+    }
+
+    /**
+     * @return The stream that picks the weather.
+     */
+    public RandomGenerator weather() {
+        return stream(WEATHER_KEY);
+    }
+
+    /**
+     * Return the stream for one tile of one pass of a parallel step.
+     * @param step The number of the step.
+     * @param pass The pass within the step.
+     * @param tile The index of the tile.
+     * @return The tile's stream.
+     */
+    public RandomGenerator forTile(int step, int pass, int tile) {
+        return stream(TILE_KEY, step, pass, tile);
+    }
+
+    /**
+     * Return a stream picked out by a sequence of keys.
+     * The same keys always give the same stream, and different keys give independent streams.
+     * @param keys The keys of the stream.
+     * @return A new generator at the start of the stream.
+     */
+    public RandomGenerator stream(long... keys) {
+        return factory.create(seedOf(keys));
+    }
+
+    /**
+     * Return the streams of another run, such as one member of a batch, whose seed is derived
+     * from this run's seed and the given key.
+     * @param key Which run to derive.
+     * @return The derived run's streams, using the same algorithm.
+     */
+    public RandomStreams split(long key) {
+        return new RandomStreams(seedOf(SPLIT_KEY, key), algorithm);
+    }
+
+    /**
+     * @return The seed of the run.
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return The name of the generator algorithm.
+     */
+    public String getAlgorithm() {
+        return algorithm;
+    }
+
+    /**
+     * Mix the run's seed with a sequence of keys.
+     * @param keys The keys to mix in.
+     * @return The seed of the stream the keys pick out.
+     */
+    private long seedOf(long... keys) {
+        long z = mix(seed);
+        for(long key : keys) {
+            z = mix(z + key);
+        }
+        return z;
+    }
+
+    /**
+     * The finishing step of the SplitMix64 generator, which spreads nearby inputs far apart.
+     * @param z The value to mix.
+     * @return The mixed value.
+     */
+    private static long mix(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
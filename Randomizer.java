@@ -1,10 +1,15 @@
 import java.util.Random;
+import java.util.random.RandomGenerator;
 
 /**
  * Provide control over the randomization of the simulation. By using the shared, fixed-seed
  * randomizer, repeated runs will perform exactly the same (which helps with testing). Set
  * 'useShared' to false to get different random behaviour every time.
  *
+ * A thread may also be given a generator of its own for a while, such as a simulation's
+ * stream while it steps or one tile of a parallel step; getRandom then returns that
+ * generator on that thread instead, so simulations never share a generator.
+ *
  * @author David J. Barnes and Michael Kölling
  * @version 2016.02.29
  */
@@ -15,6 +20,8 @@ public class Randomizer {
     private static final Random rand = new Random(SEED);
     // Determine whether a shared random generator is to be provided.
     private static final boolean useShared = true;
+    // The generator each thread is currently using in place of the shared one, if any.
+    private static final ThreadLocal<RandomGenerator> threadRandom = new ThreadLocal<>();
 
     /**
      * Constructor for objects of class Randomizer
@@ -25,9 +32,15 @@ public class Randomizer {
 
     /**
      * Provide a random generator.
+     * Callers should ask for it each time rather than keep it, so that a generator
+     * set for the current thread is picked up.
      * @return A random object.
      */
-    public static Random getRandom() {
+    public static RandomGenerator getRandom() {
+        RandomGenerator current = threadRandom.get();
+        if(current != null) {
+            return current;
+        }
         if(useShared) {
             return rand;
         }
@@ -36,4 +49,24 @@ public class Randomizer {
         }
     }
 
+    /**
+     * Make getRandom return the given generator on the calling thread.
+     * @param random The generator to use, or null to go back to the shared one.
+     */
+    public static void setThreadRandom(RandomGenerator random) {
+        if(random == null) {
+            threadRandom.remove();
+        }
+        else {
+            threadRandom.set(random);
+        }
+    }
+
+    /**
+     * @return The seed of the shared generator.
+     */
+    public static long getSeed() {
+        return SEED;
+    }
+
 }
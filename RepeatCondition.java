@@ -0,0 +1,67 @@
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Stops a simulation when it comes back to a state it was in within the last few steps:
+ * the same species in the same cells of both fields, at the same time of day and in the same
+ * weather. This catches runs that have frozen, such as a field of plants with nothing left to
+ * eat them, and runs caught in a short cycle.
+ *
+ * States are compared by the fields' state hashes, which are kept up to date as animals and
+ * plants move, so a check takes the same time however large the field is. The animals' ages
+ * and hunger are not part of the state compared.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class RepeatCondition implements StopCondition {
+    // How many steps back a state is remembered for.
+    private final int window;
+    // The hashes of the last window steps, by step modulo window.
+    private final long[] recent;
+    private final int[] recentSteps;
+    // The step each of those hashes was last seen at.
+    private final Map<Long, Integer> lastSeen;
+
+    /**
+     * Create a condition that remembers the states of the given number of steps.
+     * @param window How many steps back a repeated state is looked for.
+     */
+    public RepeatCondition(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("Need to remember at least one step, not " + window);
+        }
+        this.window = window;
+        recent = new long[window];
+        recentSteps = new int[window];
+        lastSeen = new HashMap<>();
+        reset();
+    }
+
+    @Override
+    public String check(Simulator simulator) {
+        int step = simulator.getStep();
+        long hash = simulator.getField().getStateHash() ^ Long.rotateLeft(simulator.getPlantField().getStateHash(), 1)
+                ^ (step % 4) * 0x9E3779B97F4A7C15L ^ (simulator.getWeather().ordinal() + 1L) << 32;
+        Integer seen = lastSeen.get(hash);
+        if (seen != null && step - seen <= window) {
+            return "the state of step " + seen + " came back";
+        }
+
+        int slot = Math.floorMod(step, window);
+        if (recentSteps[slot] >= 0) {
+            lastSeen.remove(recent[slot], recentSteps[slot]);
+        }
+        recent[slot] = hash;
+        recentSteps[slot] = step;
+        lastSeen.put(hash, step);
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        lastSeen.clear();
+        Arrays.fill(recentSteps, -1);
+    }
+}
@@ -0,0 +1,61 @@
+/**
+ * The mean and variance of a stream of values, updated one value at a time without keeping
+ * the values, using Welford's method so that the variance stays accurate for large values.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class RunningStatistics {
+    // How many values have been added.
+    private long count;
+    // The mean of the values so far.
+    private double mean;
+    // The sum of the squared differences from the mean so far.
+    private double sumOfSquares;
+
+    /**
+     * Add one value.
+     * @param value The value to add.
+     */
+    public void add(double value) {
+        count++;
+        double difference = value - mean;
+        mean += difference / count;
+        sumOfSquares += difference * (value - mean);
+    }
+
+    /**
+     * @return How many values have been added.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return The mean of the values, or NaN if there are none.
+     */
+    public double getMean() {
+        return count == 0 ? Double.NaN : mean;
+    }
+
+    /**
+     * @return The sample variance of the values, or NaN if there are fewer than two.
+     */
+    public double getVariance() {
+        return count < 2 ? Double.NaN : sumOfSquares / (count - 1);
+    }
+
+    /**
+     * @return The sample standard deviation of the values, or NaN if there are fewer than two.
+     */
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+    /**
+     * @return The standard error of the mean, or NaN if there are fewer than two values.
+     */
+    public double getStandardError() {
+        return Math.sqrt(getVariance() / count);
+    }
+}
@@ -1,4 +1,3 @@
-import java.util.Iterator;
 import java.util.List;
 
 /**
@@ -12,19 +11,34 @@ import java.util.List;
 public class Shark extends Predator{
 
     /**
-     * Create a shark as a newborn (age zero and not hungry) or with a random age and food level.
+     * Create a shark at age zero, as a newborn (not hungry) or with a random food level.
      *
-     * @param randomAge If true, the shark will have random age and hunger level.
+     * @param profile   The characteristics shared by all sharks.
+     * @param randomAge If true, the shark will have a random food level.
      * @param field     The field currently occupied.
-     * @param location  The location within the field.
+     * @param cell  The index of the cell within the field.
      * @param gender    the shark's gender, with true representing female and false representing male.
      */
-    public Shark(boolean randomAge, Field field, Location location, boolean gender) {
-        super(randomAge, field, location, gender);
-        setBREEDING_AGE(getBaseValue("sharkBreedingAge"));
-        setMAX_AGE(getBaseValue("sharkMaxAge"));
-        setBREEDING_PROBABILITY(getStatistic("sharkBreedingProbability"));
-        setMAX_LITTER_SIZE(getBaseValue("sharkMaxLitterSize"));
+    public Shark(SpeciesProfile profile, boolean randomAge, Field field, int cell, boolean gender) {
+        super(profile, randomAge, field, cell, gender);
+    }
+
+    /**
+     * Create a newborn shark, reusing a dead one kept by the field's population store if there is one.
+     *
+     * @param profile The characteristics shared by all sharks.
+     * @param field The field the shark is born on.
+     * @param cell The index of its cell within the field.
+     * @param gender The newborn's gender.
+     * @return The newborn shark.
+     */
+    public static Shark newborn(SpeciesProfile profile, Field field, int cell, boolean gender) {
+        Shark young = (Shark) field.getPopulation().reuse(Species.SHARK);
+        if(young == null) {
+            return new Shark(profile, false, field, cell, gender);
+        }
+        young.reborn(cell, gender);
+        return young;
     }
 
     /**
@@ -40,14 +54,14 @@ public class Shark extends Predator{
         if(isAlive()) {
             findMate(newShark);
             // Move towards a source of food if found.
-            Location newLocation = findFood();
-            if(newLocation == null) {
+            int newCell = findFood();
+            if(newCell < 0) {
                 // No food found - try to move to a free location.
-                newLocation = getField().freeAdjacentLocation(getLocation());
+                newCell = getField().freeAdjacentCell(getCell());
             }
             // See if it was possible to move.
-            if(newLocation != null) {
-                setLocation(newLocation);
+            if(newCell >= 0) {
+                setCell(newCell);
             }
             else {
                 // Overcrowding.
@@ -64,8 +78,7 @@ public class Shark extends Predator{
          incrementAge();
         incrementHunger();
         if (isAlive()) {
-            Location location = this.getLocation();
-            setLocation(location);
+            setCell(getCell());
         }
     }
 
@@ -76,11 +89,11 @@ public class Shark extends Predator{
     public void coldWatersAct(List<Animal> newShark){
         incrementAge();
         if(isAlive()) {
-            Location newLocation = findFood();
-            if(newLocation == null) { // No food found
-                newLocation = getField().freeAdjacentLocation(getLocation());
-            }if(newLocation != null) {
-                setLocation(newLocation);
+            int newCell = findFood();
+            if(newCell < 0) { // No food found
+                newCell = getField().freeAdjacentCell(getCell());
+            }if(newCell >= 0) {
+                setCell(newCell);
             }
             else {
                 setDead();
@@ -97,12 +110,12 @@ public class Shark extends Predator{
         incrementHunger();
         if(isAlive()) {
             findMate(newShark);
-            Location newLocation = findFood();
-            if(newLocation == null) {
-                newLocation = getField().freeAdjacentLocation(getLocation());
+            int newCell = findFood();
+            if(newCell < 0) {
+                newCell = getField().freeAdjacentCell(getCell());
             }
-            if(newLocation != null) {
-                setLocation(newLocation);
+            if(newCell >= 0) {
+                setCell(newCell);
             }
             else {
                 setDead();
@@ -115,21 +128,20 @@ public class Shark extends Predator{
      */
     protected void findMate(List<Animal> newShark) {
         Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
-        Iterator<Location> it = adjacent.iterator();
+        int[] adjacent = getAdjacentBuffer();
+        int[] free = getFreeBuffer();
+        int count = field.adjacentCells(getCell(), adjacent);
+        int freeCount = field.freeAdjacentCells(getCell(), free);
 
-        while (it.hasNext()) {
-            Location where = it.next();
-            Object animal = field.getObjectAt(where);
-            if (animal instanceof Shark) {
-                Shark mate = (Shark) animal;
+        for (int i = 0; i < count; i++) {
+            if (field.getCodeAt(adjacent[i]) == getSpecies().getCode()) {
+                Animal mate = (Animal) field.getObjectAt(adjacent[i]);
                 if (mate.isAlive() && mate.getGender() != this.getGender()) {
                    int births = breed();
                     //int births = rand.nextInt(2) + 1;
-                    for (int b = 0; b < births && free.size() > 0; b++) {
-                        Location loc = free.remove(0);
-                        Shark young = new Shark(false, field, loc, rand.nextBoolean());
+                    for (int b = 0; b < births && b < freeCount; b++) {
+                        int loc = free[b];
+                        Shark young = Shark.newborn(profile, field, loc, Randomizer.getRandom().nextBoolean());
                         newShark.add(young);
                     }
                 }
@@ -141,28 +153,24 @@ public class Shark extends Predator{
     /**
      * Looks for prey in adjacent locations to eat the first one found
      * Overrides the typical predator findFood method to include Tuna as a type of prey.
-     * @return Where food was found, or null if it wasn't.
+     * @return The cell where food was found, or -1 if it wasn't.
      */
     @Override
-    protected Location findFood() {
+    protected int findFood() {
         if(getFoodLevel()<60){
             Field field = getField();
-            List<Location> adjacent = field.adjacentLocations(getLocation());
-            Iterator<Location> it = adjacent.iterator();
-            while(it.hasNext()) {
-                Location where = it.next();
-                Object animal = field.getObjectAt(where);
-                if(animal instanceof Prey || animal instanceof Tuna) {
-                    Animal prey = (Animal) animal;
-                    if(prey.isAlive()) {
-                        prey.setDead();
-                        setFoodLevel(getFoodLevel() + prey.getNutritionalValue());
-                        return where;
-                    }
+            int[] adjacent = getAdjacentBuffer();
+            int count = field.adjacentCellsMatching(getCell(), Species.PREY_MASK | Species.TUNA.mask(), adjacent);
+            for(int i = 0; i < count; i++) {
+                Animal prey = (Animal) field.getObjectAt(adjacent[i]);
+                if(prey.isAlive()) {
+                    prey.setDead();
+                    setFoodLevel(getFoodLevel() + prey.getNutritionalValue());
+                    return adjacent[i];
                 }
             }
         }
-        return null;
+        return -1;
     }
 
 }
@@ -2,6 +2,7 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.util.Arrays;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
@@ -32,21 +33,41 @@ public class SimulatorView extends JFrame {
 
     // A map for storing colors for participants in the simulation
     private Map<Class, Color> colors;
+    // The same colors indexed by species code, so that drawing never looks at the occupants
+    private Color[] codeColors;
     // A statistics object computing and storing simulation information
     private FieldStats stats;
+    // The field last drawn, and its mark from then; only the tiles changed since are drawn again.
+    private Field drawnField;
+    private int drawnMark;
 
     private boolean running;
     private boolean stop;
 
+    /**
+     * Create a view of the given width and height, without the buttons that control a simulation,
+     * such as for playing back a journal.
+     *
+     * @param height The field's height.
+     * @param width  The field's width.
+     */
+    public SimulatorView(int height, int width) {
+        this(height, width, null);
+    }
+
     /**
      * Create a view of the given width and height.
      *
      * @param height The simulation's height.
      * @param width  The simulation's width.
+     * @param simulator The simulation the buttons control, or null for no buttons.
      */
     public SimulatorView(int height, int width, Simulator simulator) {
         stats = new FieldStats();
         colors = new LinkedHashMap<>();
+        codeColors = new Color[Species.CODE_COUNT];
+        Arrays.fill(codeColors, UNKNOWN_COLOR);
+        codeColors[Species.EMPTY] = EMPTY_COLOR;
 
         setTitle("PPA assignment 3 - alex and charlie's underwater sensation");
         stepLabel = new JLabel(STEP_PREFIX, JLabel.CENTER);
@@ -85,9 +106,14 @@ public class SimulatorView extends JFrame {
         contents.add(infoPane, BorderLayout.NORTH);
         contents.add(fieldView, BorderLayout.CENTER);
         contents.add(population, BorderLayout.SOUTH);
-        contents.add(bPane, BorderLayout.EAST);
+        if (simulator != null) {
+            contents.add(bPane, BorderLayout.EAST);
+        }
         pack();
         setVisible(true);
+        if (simulator == null) {
+            return;
+        }
 
 
         // Runs the runLongSimulation when the button is clicked
@@ -151,6 +177,17 @@ public class SimulatorView extends JFrame {
         });
     }
 
+    /**
+     * Define a color to be used for a given species, such as plants, which have no class of their own.
+     *
+     * @param species The species.
+     * @param color   The color to be used for the given species.
+     */
+    public void setColor(Species species, Color color) {
+        codeColors[species.getCode()] = color;
+        drawnField = null;
+    }
+
     /**
      * Define a color to be used for a given class of animal.
      *
@@ -159,29 +196,21 @@ public class SimulatorView extends JFrame {
      */
     public void setColor(Class animalClass, Color color) {
         colors.put(animalClass, color);
-    }
-
-
-    /**
-     * @return The color to be used for a given class of animal.
-     */
-    private Color getColor(Class animalClass) {
-        Color col = colors.get(animalClass);
-        if (col == null) {
-            // no color defined for this class
-            return UNKNOWN_COLOR;
-        } else {
-            return col;
+        Species species = Species.of(animalClass);
+        if (species != null) {
+            codeColors[species.getCode()] = color;
         }
+        drawnField = null;
     }
 
+
     /**
      * Show the current status of the field.
      *
      * @param step  Which iteration step it is.
      * @param field The field whose status is to be displayed.
      */
-    public void showStatus(int step, Field field, String weather, boolean day) {
+    public void showStatus(int step, Field field, Weather weather, boolean day) {
         if (!isVisible()) {
             setVisible(true);
         }
@@ -196,25 +225,28 @@ public class SimulatorView extends JFrame {
         } else {
             timeOfDayLabel.setText((TIMEofDAY_PREFIX + "PM"));
         }
-        fieldView.preparePaint();
-
-        for (int row = 0; row < field.getDepth(); row++) {
-            for (int col = 0; col < field.getWidth(); col++) {
-                Object animal = field.getObjectAt(row, col);
-                Object plant = field.getObjectAt(row, col);
-                if (animal != null) {
-                    stats.incrementCount(animal.getClass());
-                    fieldView.drawMark(col, row, getColor(animal.getClass()));
-
-                } else if (plant != null) {
-                    stats.incrementCount(animal.getClass());
-                    fieldView.drawMark(col, row, getColor(animal.getClass()));
-                } else {
-                    fieldView.drawMark(col, row, EMPTY_COLOR);
+        boolean redrawAll = fieldView.preparePaint() || field != drawnField;
+
+        // Walk the species codes of each tile that has changed since the last drawing, in storage
+        // order, keeping track of the row and column as we go.
+        // The population counts come from the field, so this pass only draws.
+        for (int tile = 0; tile < field.getTileCount(); tile++) {
+            if (!redrawAll && !field.tileChangedSince(tile, drawnMark)) {
+                continue;
+            }
+            int firstRow = tile / field.getTilesAcross() * Field.TILE_SIZE;
+            int firstCol = tile % field.getTilesAcross() * Field.TILE_SIZE;
+            int endRow = Math.min(firstRow + Field.TILE_SIZE, field.getDepth());
+            int endCol = Math.min(firstCol + Field.TILE_SIZE, field.getWidth());
+            for (int row = firstRow; row < endRow; row++) {
+                int cell = field.cellOf(row, firstCol);
+                for (int col = firstCol; col < endCol; col++, cell++) {
+                    fieldView.drawMark(col, row, codeColors[field.getCodeAt(cell)]);
                 }
             }
         }
-        stats.countFinished();
+        drawnField = field;
+        drawnMark = field.markChanges();
 
         population.setText(POPULATION_PREFIX + stats.getPopulationDetails(field));
         fieldView.repaint();
@@ -262,8 +294,10 @@ public class SimulatorView extends JFrame {
         /**
          * Prepare for a new round of painting. Since the component
          * may be resized, compute the scaling factor again.
+         *
+         * @return true if the image was made anew, so that every cell must be drawn.
          */
-        public void preparePaint() {
+        public boolean preparePaint() {
             if (!size.equals(getSize())) {  // if the size has changed...
                 size = getSize();
                 fieldImage = fieldView.createImage(size.width, size.height);
@@ -277,7 +311,9 @@ public class SimulatorView extends JFrame {
                 if (yScale < 1) {
                     yScale = GRID_VIEW_SCALING_FACTOR;
                 }
+                return true;
             }
+            return false;
         }
 
         /**
@@ -1,8 +1,9 @@
-import java.awt.*;
 import java.util.ArrayList;
-import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
 /**
  * A small ecosystem simulator containing five species and plants displayed on a rectangular screen
  * Spawns all new animals and plants on the field of area
@@ -16,24 +17,56 @@ public class Simulator {
     private static final int DEFAULT_WIDTH = 120;
     // The default depth of the grid.
     private static final int DEFAULT_DEPTH = 80;
-
-    public PropertiesFile file;
-
-    private List<Animal> animals;   // List of animals in the field.
-    private List<Plant> plants;     //list of plants in the field
+    // The pause between steps when the simulation is shown on screen, in milliseconds.
+    private static final int GUI_DELAY = 40;
+    // The weather changes every this many steps.
+    private static final int WEATHER_STEPS = 8;
+    // The turn an animal takes at each time of day in each weather, indexed by their ordinals.
+    private static final List<List<BiConsumer<Animal, List<Animal>>>> TURNS = turns();
+
+    // The base statistics, read once and shared by every animal and plant
+    private final Configuration config;
+    // The characteristics of each species of animal, shared by all of its animals, indexed by species code
+    private final SpeciesProfile[] profiles;
+    // Picks what each cell starts with when the field is populated
+    private final SpawnTable spawnTable;
+
+    private ArrayList<Animal> animals;   // List of animals in the field.
+    // The animals born during the current step, reused from step to step.
+    private ArrayList<Animal> newAnimals;
 
     private Field field;
-    private Field plantLocation;
+    // The plants, which are kept as a grid rather than as objects.
+    private PlantLayer plants;
     // The current step of the simulation.
     private int step;
-    // A graphical view of the simulation.
-    private SimulatorView animalView;
-    private SimulatorView plantView;
-
-    private Weather weather = new Weather();
-    private String currentWeather;
+    // Whatever is watching the simulation, such as the graphical view.
+    private List<SimulatorObserver> observers;
+    // The pause between steps, in milliseconds.
+    private int delay;
+    // Runs each step on several threads, or null to run it on the calling thread.
+    private TileStepper stepper;
+    // Decides which animals take each step's turn, or null to give every animal its turn. While
+    // it is in use it holds the animals, and the list of animals is only filled when asked for.
+    private TurnCalendar calendar;
+
+    // The random number streams of the run, and the stream in use: the populating stream
+    // during a reset, then a stream of each step's own.
+    private final RandomStreams streams;
+    private RandomGenerator rand;
+
+    // Picks the weather each time it changes, from a stream of its own, and how many times it has picked.
+    private final WeatherSchedule weatherSchedule;
+    private RandomGenerator weatherRand;
+    private int weatherDraws;
+    private Weather weather;
+    private TimeOfDay timeOfDay;
 
     private boolean exit;
+    // What decides when the run has gone far enough, and why and at which step it stopped, if it has.
+    private List<StopCondition> stopConditions;
+    private String stopReason;
+    private int stopStep;
 
     /**
      * Construct a simulation field with default size.
@@ -48,6 +81,45 @@ public class Simulator {
      * @param width Width of the field. Must be greater than zero.
      */
     public Simulator(int depth, int width) {
+        this(depth, width, Configuration.load());
+    }
+
+    /**
+     * Create a simulation field with the given size and base statistics, shown on screen.
+     *
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param config The base statistics to run the simulation with.
+     */
+    public Simulator(int depth, int width, Configuration config) {
+        this(depth, width, config, true);
+    }
+
+    /**
+     * Create a simulation field with the given size and base statistics.
+     * A simulation without a display loads no windowing classes and runs without pausing between steps.
+     *
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param config The base statistics to run the simulation with.
+     * @param display Whether to show the simulation on screen.
+     */
+    public Simulator(int depth, int width, Configuration config, boolean display) {
+        this(depth, width, config, display, new RandomStreams(Randomizer.getSeed()));
+    }
+
+    /**
+     * Create a simulation field with the given size, base statistics and random numbers.
+     * Every run from a reset with the same streams is exactly the same, whatever number
+     * of threads it is stepped on.
+     *
+     * @param depth Depth of the field. Must be greater than zero.
+     * @param width Width of the field. Must be greater than zero.
+     * @param config The base statistics to run the simulation with.
+     * @param display Whether to show the simulation on screen.
+     * @param streams The random number streams of the run.
+     */
+    public Simulator(int depth, int width, Configuration config, boolean display, RandomStreams streams) {
         if (width <= 0 || depth <= 0) {
             System.out.println("The dimensions must be greater than zero.");
             System.out.println("Using default values.");
@@ -56,21 +128,27 @@ public class Simulator {
         }
 
         animals = new ArrayList<>();
-        plants = new ArrayList<>();
+        newAnimals = new ArrayList<>();
         field = new Field(depth, width);
-        plantLocation = new Field(depth, width);
-
-        file = new PropertiesFile();
-        // Create a view of the state of each location in the field.
-        plantView = new SimulatorView(depth, width, Simulator.this);
-        plantView.setColor(Plant.class, Color.GREEN);
-
-        animalView = new SimulatorView(depth, width,Simulator.this );
-        animalView.setColor(HelperFish.class, Color.YELLOW);
-        animalView.setColor(Shark.class, Color.BLACK);
-        animalView.setColor(Tuna.class, Color.RED);
-        animalView.setColor(SmallFish.class, Color.CYAN);
-        animalView.setColor(Whale.class, Color.BLUE);
+        plants = new PlantLayer(config, depth, width);
+
+        this.config = config;
+        this.streams = streams;
+        weatherSchedule = config.getWeatherSchedule();
+        profiles = new SpeciesProfile[Species.CODE_COUNT];
+        for (Species species : Species.values()) {
+            if (species.isAnimal()) {
+                profiles[species.getCode()] = config.getProfile(species);
+            }
+        }
+        spawnTable = new SpawnTable(config);
+        observers = new ArrayList<>();
+        stopConditions = new ArrayList<>();
+        if (display) {
+            // Create a view of the state of each location in the field.
+            addObserver(new SimulatorGui(Simulator.this, depth, width));
+            delay = GUI_DELAY;
+        }
 
         // Setup a valid starting point.
         reset();
@@ -92,9 +170,11 @@ public class Simulator {
      * @param numSteps The number of steps to run for.
      */
     public void simulate(int numSteps) {
-        for (int step = 1; step <= numSteps && animalView.isViable(field); step++) {
+        for (int step = 1; step <= numSteps && !exit && isViable(); step++) {
             simulateOneStep();
-            delay(40);   // uncomment this to run more slowly
+            if (delay > 0) {
+                delay(delay);
+            }
         }
     }
 
@@ -104,50 +184,196 @@ public class Simulator {
      */
     public void simulateOneStep() {
         if (!exit) {
-            step++;
+            // Everything drawn on this thread during the step comes from the step's own stream.
+            rand = streams.forStep(step + 1);
+            Randomizer.setThreadRandom(rand);
+            try {
+                step();
+            }
+            finally {
+                Randomizer.setThreadRandom(null);
+            }
+            checkStopConditions();
+            notifyObservers();
+        }
+    }
 
-            // Provide space for newborn animals.
-            List<Animal> newAnimals = new ArrayList<>();
-            List<Plant> newPlants = new ArrayList<>();
-            boolean day = checkTimeOfDay();
-            String currentWeather = getCurrentWeather();
+    /**
+     * Forget why and at which step the run last stopped, and let every stop condition forget
+     * the steps it has seen, so that a reset or resumed run is judged on its own steps only.
+     */
+    private void resetStopConditions() {
+        stopReason = null;
+        stopStep = -1;
+        for (StopCondition condition : stopConditions) {
+            condition.reset();
+        }
+    }
 
-            for (Iterator<Animal> it = animals.iterator(); it.hasNext(); ) {
-                Animal animal = it.next();
+    /**
+     * Ask each stop condition whether the run has gone far enough, and stop it at the first that says so.
+     */
+    private void checkStopConditions() {
+        for (int i = 0; i < stopConditions.size(); i++) {
+            String reason = stopConditions.get(i).check(this);
+            if (reason != null) {
+                stopReason = reason;
+                stopStep = step;
+                exit = true;
+                return;
+            }
+        }
+    }
 
-                if (day) {
-                    animal.act(newAnimals);
-                }
-                else if(currentWeather.equals("Warm waters")) { //act normal
-                        animal.nightAct(newAnimals);
-                } else if (currentWeather.equals("Cold waters")) { //hunger or health decreases
-                        animal.coldWatersAct(newAnimals);
-                } else if (currentWeather.equals("Strong currents")) { //all animals stay in the same location
-                        animal.strongCurrentsAct(newAnimals);
+    /**
+     * Move the simulation on by one step.
+     */
+    private void step() {
+        step++;
+
+        // Provide space for newborn animals.
+        newAnimals.clear();
+        timeOfDay = TimeOfDay.at(step);
+        changeWeather();
+        // What the animals do depends only on the time of day and the weather, so it is looked up once.
+        BiConsumer<Animal, List<Animal>> turn = TURNS.get(timeOfDay.ordinal()).get(weather.ordinal());
+        boolean day = timeOfDay == TimeOfDay.DAY;
+
+        // Every animal, or only those whose turn does something.
+        List<Animal> acting = calendar == null ? animals : calendar.awake(step, timeOfDay, weather);
+        if (stepper == null) {
+            // Animals that die during the step stay in the list until it is compacted at the end.
+            for (int i = 0, size = acting.size(); i < size; i++) {
+                Animal animal = acting.get(i);
+                if (animal.isAlive()) {
+                    turn.accept(animal, newAnimals);
                 }
+            }
+            // plants only grow during the day
+            if (day) {
+                plants.regrow();
+            }
+        }
+        else {
+            stepper.run(acting, Animal::getCell, turn, newAnimals, step, 0);
+            // plants only grow during the day
+            if (day) {
+                stepper.runTiles(plants::regrow, step, 1);
+                plants.endRegrowth();
+            }
+        }
 
-                if (!animal.isAlive()) {
-                    it.remove();
-                }
+        // Drop the dead and add the newly born animals
+        if (calendar == null) {
+            compact(animals, newAnimals, Animal::isAlive, Animal::recycle);
+        }
+        else {
+            calendar.endStep(step, newAnimals);
+        }
+
+        if (Field.VERIFY_COUNTS) {
+            verifyCounts();
+        }
+    }
+
+    /**
+     * Check the population counts of both fields against full scans, and the living and
+     * diseased animals in the population store against the animals on the field.
+     * @throws IllegalStateException if any of them disagree.
+     */
+    private void verifyCounts() {
+        field.verifyCounts();
+        plants.getField().verifyCounts();
+        plants.verifyFrontier();
+        int[] alive = new int[Species.CODE_COUNT];
+        field.getPopulation().countAlive(alive);
+        for (Species species : Species.values()) {
+            if (alive[species.getCode()] != field.getCount(species)) {
+                throw new IllegalStateException(alive[species.getCode()] + " " + species + " are alive in the store but "
+                        + field.getCount(species) + " are on the field");
             }
-            for (Iterator<Plant> itPlant = plants.iterator(); itPlant.hasNext(); ) {
-                Plant plant = itPlant.next();
-                // plants only grow during the day
-                if (day) {
-                    plant.regrow(newPlants);
-                }
+        }
+        int[] diseased = new int[Species.CODE_COUNT];
+        field.getPopulation().countDiseased(diseased);
+        for (Species species : Species.values()) {
+            if (diseased[species.getCode()] != field.getDiseasedCount(species)) {
+                throw new IllegalStateException(diseased[species.getCode()] + " " + species + " are diseased in the store but "
+                        + field.getDiseasedCount(species) + " are marked on the field");
+            }
+        }
+    }
 
-                if (!plant.isAlive()) {
-                    itPlant.remove();
-                }
+    /**
+     * Remove the dead from a list of entities and add the newborns, in one pass.
+     * The survivors are moved down over the dead in their original order, the newborns fill
+     * the space left and then follow, and the dead are handed back for reuse. This takes time
+     * proportional to the list, however many have died, where removing each of the dead in
+     * turn would shift the rest of the list every time.
+     *
+     * @param entities The entities, in the order they act.
+     * @param newborns The entities born this step, in the order they were born; newborns that
+     *                 have already died are dropped too.
+     * @param isAlive Whether an entity is alive.
+     * @param recycle Hands a dead entity back for reuse.
+     */
+    private static <T> void compact(ArrayList<T> entities, List<T> newborns, Predicate<T> isAlive, Consumer<T> recycle) {
+        int size = entities.size();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            T entity = entities.get(i);
+            if (isAlive.test(entity)) {
+                entities.set(kept++, entity);
+            }
+            else {
+                recycle.accept(entity);
+            }
+        }
+        for (T newborn : newborns) {
+            if (!isAlive.test(newborn)) {
+                recycle.accept(newborn);
             }
+            else if (kept < size) {
+                entities.set(kept++, newborn);
+            }
+            else {
+                entities.add(newborn);
+                kept++;
+            }
+        }
+        if (kept < size) {
+            // Only the tail goes, so nothing is shifted.
+            entities.subList(kept, size).clear();
+        }
+    }
 
-            // Add the newly born animals and plants
-            animals.addAll(newAnimals);
-            plants.addAll(newPlants);
+    /**
+     * Build the table of the turn an animal takes at each time of day in each weather.
+     * @return The turns, indexed by time of day ordinal and then weather ordinal.
+     */
+    private static List<List<BiConsumer<Animal, List<Animal>>>> turns() {
+        List<List<BiConsumer<Animal, List<Animal>>>> turns = new ArrayList<>();
+        for (TimeOfDay timeOfDay : TimeOfDay.values()) {
+            List<BiConsumer<Animal, List<Animal>>> byWeather = new ArrayList<>();
+            for (Weather weather : Weather.values()) {
+                byWeather.add(turn(timeOfDay, weather));
+            }
+            turns.add(List.copyOf(byWeather));
+        }
+        return List.copyOf(turns);
+    }
 
-            animalView.showStatus(step, field, currentWeather, day);
-            plantView.showStatus(step, plantLocation, currentWeather, day);
+    /**
+     * @return The turn an animal takes at the given time of day in the given weather.
+     */
+    private static BiConsumer<Animal, List<Animal>> turn(TimeOfDay timeOfDay, Weather weather) {
+        if (timeOfDay == TimeOfDay.DAY) {
+            return Animal::act;
+        }
+        switch (weather) {
+            case WARM_WATERS: return Animal::nightAct; //act normal
+            case COLD_WATERS: return Animal::coldWatersAct; //hunger or health decreases
+            case STRONG_CURRENTS: return Animal::strongCurrentsAct; //all animals stay in the same location
+            default: throw new IllegalArgumentException("No turn for " + weather);
         }
     }
 
@@ -157,17 +383,201 @@ public class Simulator {
     public void reset() {
         step = 0;
         exit = false;
+        resetStopConditions();
         animals.clear();
-        plants.clear();
-        populate();
-        setWeatherDict();
-        String currentWeather = getCurrentWeather();
+        rand = streams.main();
+        weatherRand = streams.weather();
+        weatherDraws = 0;
+        weather = null;
+        Randomizer.setThreadRandom(rand);
+        try {
+            populate();
+        }
+        finally {
+            Randomizer.setThreadRandom(null);
+        }
+        if (calendar != null) {
+            fillCalendar();
+        }
+        if (Field.VERIFY_COUNTS) {
+            verifyCounts();
+        }
+        changeWeather();
+        timeOfDay = TimeOfDay.at(step);
         // Show the starting state in the view.
-        boolean day = checkTimeOfDay();
-        animalView.showStatus(step, field, currentWeather, day);
-        plantView.showStatus(step, plantLocation, currentWeather, day);
+        notifyObservers();
+    }
+
+
+    /**
+     * Add something to be told about the simulation after it is reset and after every step.
+     * @param observer The observer to add.
+     */
+    public void addObserver(SimulatorObserver observer) {
+        observers.add(observer);
     }
 
+    /**
+     * Add something that decides when the run has gone far enough. It is asked after every step,
+     * and the first condition met stops the run, as stop does, until it is reset.
+     * @param condition The condition to add.
+     */
+    public void addStopCondition(StopCondition condition) {
+        stopConditions.add(condition);
+    }
+
+    /**
+     * @return Why a stop condition stopped the run, or null if none has since the last reset.
+     */
+    public String getStopReason() {
+        return stopReason;
+    }
+
+    /**
+     * @return The step at which a stop condition stopped the run, or -1 if none has since the last reset.
+     */
+    public int getStopStep() {
+        return stopStep;
+    }
+
+    /**
+     * Tell every observer about the current state of the simulation.
+     */
+    private void notifyObservers() {
+        for (SimulatorObserver observer : observers) {
+            observer.simulationUpdated(this);
+        }
+    }
+
+    /**
+     * Set the pause between steps of simulate.
+     * @param millisec The pause in milliseconds; zero runs at full speed.
+     */
+    public void setDelay(int millisec) {
+        delay = millisec;
+    }
+
+    /**
+     * Choose how many threads each step is run on.
+     * With one or more workers the field is split into tiles that are run in parallel, and
+     * the outcome for a given seed is the same for any number of workers. With none, every
+     * animal acts in turn on the calling thread, as the simulation always has.
+     * @param workers The number of worker threads, or zero to run on the calling thread.
+     * @param tileSize The width and depth of each tile, at least TileStepper.MIN_TILE_SIZE.
+     */
+    public void setParallelism(int workers, int tileSize) {
+        if (stepper != null) {
+            stepper.shutdown();
+            stepper = null;
+        }
+        if (workers > 0) {
+            stepper = new TileStepper(tileSize, workers, streams, field, plants.getField());
+        }
+    }
+
+    /**
+     * Choose whether every animal is asked to take its turn at every step, or only those whose
+     * turn does something, as decided by a TurnCalendar. Skipping the turns that do nothing
+     * saves time without changing the run: the outcome for a given seed is the same either way.
+     * @param skip true to skip the turns that do nothing.
+     */
+    public void setSkipIdleTurns(boolean skip) {
+        if (skip == (calendar != null)) {
+            return;
+        }
+        if (skip) {
+            calendar = new TurnCalendar();
+            fillCalendar();
+        }
+        else {
+            takeAnimalsFromCalendar();
+            calendar = null;
+        }
+    }
+
+    /**
+     * Put every animal in the calendar, in the order they act.
+     */
+    private void fillCalendar() {
+        calendar.clear();
+        for (Animal animal : animals) {
+            calendar.add(animal, step);
+        }
+        animals.clear();
+    }
+
+    /**
+     * Fill the list of animals from the calendar, bringing the sleeping ones up to date.
+     */
+    private void takeAnimalsFromCalendar() {
+        calendar.settle();
+        animals.clear();
+        calendar.collect(animals);
+    }
+
+    /**
+     * Choose how many threads each step is run on, using tiles of the default size.
+     * @param workers The number of worker threads, or zero to run on the calling thread.
+     */
+    public void setParallelism(int workers) {
+        setParallelism(workers, TileStepper.DEFAULT_TILE_SIZE);
+    }
+
+    /**
+     * Determine whether the simulation is still viable, i.e. whether more than one species of animal is alive.
+     * @return true if it should continue to run.
+     */
+    public boolean isViable() {
+        int nonZero = 0;
+        for (Species species : Species.values()) {
+            if (species != Species.PLANT && field.getCount(species) > 0) {
+                nonZero++;
+            }
+        }
+        return nonZero > 1;
+    }
+
+    /**
+     * @return The number of steps simulated since the last reset.
+     */
+    public int getStep() {
+        return step;
+    }
+
+    /**
+     * @return The field holding the animals.
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * @return The field holding the plants.
+     */
+    public Field getPlantField() {
+        return plants.getField();
+    }
+
+    /**
+     * @return The current weather condition.
+     */
+    public Weather getWeather() {
+        return weather;
+    }
+
+    /**
+     * @return The current time of day.
+     */
+    public TimeOfDay getTimeOfDay() {
+        return timeOfDay;
+    }
+
+    /**
+     * @return true if it is currently day time.
+     */
+    public boolean isDay() {
+        return timeOfDay == TimeOfDay.DAY;
+    }
 
     /**
      * stops the simulator
@@ -179,44 +589,23 @@ public class Simulator {
 
     /**
      * Randomly populate the field with different species.
+     * What each cell starts with, and the gender of its animal, is picked by the spawn table with
+     * one random number.
      */
     private void populate() {
-        Random rand = Randomizer.getRandom();
         field.clear();
-        for (int row = 0; row < field.getDepth(); row++) {
-            for (int col = 0; col < field.getWidth(); col++) {
-                if(rand.nextDouble() <= getStatistic("SHARK_CREATION_PROBABILITY")) {
-                    Location location = new Location(row, col);
-                    Predator shark = new Shark(true, field, location, rand.nextBoolean()); // add gender randomizer
-                    animals.add(shark);
-                }
-                else if(rand.nextDouble() <= getStatistic("TUNA_CREATION_PROBABILITY")) {
-                    Location location = new Location(row, col);
-                    Predator tuna = new Tuna(true, field, location, rand.nextBoolean());
-                    animals.add(tuna);
-                }
-                else if(rand.nextDouble() <= getStatistic("HELPER_FISH_CREATION_PROBABILITY")) {
-                    Location location = new Location(row, col);
-                    Prey helperFish = new HelperFish(true, field, location, rand.nextBoolean(), plantLocation);
-                    animals.add(helperFish);
-                }
-                else if(rand.nextDouble() <= getStatistic("SMALL_FISH_CREATION_PROBABILITY")){
-                    Location location = new Location(row,col);
-                    Prey smallFish = new SmallFish(true, field, location, rand.nextBoolean(), plantLocation);
-                    animals.add(smallFish);
-                }
-                else if(rand.nextDouble() <= getStatistic("WHALE_CREATION_PROBABILITY")){
-                    Location location = new Location(row, col);
-                    Animal whale = new Whale(field, location);
-                    animals.add(whale);
-                }
-                if (rand.nextDouble() <= getStatistic("PLANT_CREATION_PROBABILITY")) {
-                    Location location = new Location(row, col);
-                    Plant plant = new Plant(plantLocation, location);
-                    plants.add(plant);
-                }
-                // else leave the location empty.
+        plants.clear();
+        for (int cell = 0; cell < field.getSize(); cell++) {
+            int outcome = spawnTable.sample(rand);
+            Species species = spawnTable.getAnimal(outcome);
+            if (species != null) {
+                animals.add(species.createAnimal(profiles[species.getCode()], true, field, cell,
+                        spawnTable.getGender(outcome), plants));
             }
+            if (spawnTable.hasPlant(outcome)) {
+                plants.sow(cell);
+            }
+            // else leave the location empty.
         }
     }
 
@@ -234,43 +623,116 @@ public class Simulator {
     }
 
     /**
-     * Sets the possible weather conditions
+     * For every 8 steps, the simulation changes the current weather condition,
+     * picked by the configured schedule from the weather's own stream.
+     */
+    private void changeWeather() {
+        if (step % WEATHER_STEPS == 0) {
+            weather = weatherSchedule.next(weather, weatherRand);
+            weatherDraws++;
+        }
+    }
+
+    /**
+     * Return the random number streams this simulation runs with.
+     * @return The simulation's random streams.
      */
-    private void setWeatherDict() {
-        weather.setWeather(1, "Cold waters");
-        weather.setWeather(2, "Warm waters");
-        weather.setWeather(3, "Strong currents");
+    public RandomStreams getRandomStreams() {
+        return streams;
     }
 
     /**
-     * For every 8 steps, the simulation changes the current weather condition
-     * @return currentWeather.
+     * Return the base statistics this simulation runs with.
+     * @return The simulation's configuration.
      */
-    private String getCurrentWeather() {
-        if (step % 8 == 0) {
-            currentWeather = weather.getWeather();
-            return currentWeather;
+    public Configuration getConfiguration() {
+        return config;
+    }
+
+    /**
+     * Return the living animals in the order they act, for saving. The list must not be changed.
+     * @return The simulation's animals.
+     */
+    List<Animal> getAnimals() {
+        if (calendar != null) {
+            takeAnimalsFromCalendar();
+        }
+        return animals;
+    }
+
+    /**
+     * Return the plants, for saving and restoring.
+     * @return The simulation's plants.
+     */
+    PlantLayer getPlants() {
+        return plants;
+    }
+
+    /**
+     * @return How many times the weather has been picked since the last reset.
+     */
+    int getWeatherDraws() {
+        return weatherDraws;
+    }
+
+    /**
+     * Empty the simulation and set it to a saved step, ready for the saved animals to be put
+     * back by restoreAnimal in the order they acted, the saved plants to be sown in the plant
+     * layer, and endRestore to be called once they all have been.
+     *
+     * @param step The saved step.
+     * @param currentWeather The weather at the saved step.
+     * @param weatherDraws How many times the weather had been picked by the saved step.
+     */
+    void beginRestore(int step, Weather currentWeather, int weatherDraws) {
+        this.step = step;
+        exit = false;
+        resetStopConditions();
+        animals.clear();
+        if (calendar != null) {
+            calendar.clear();
         }
-        return currentWeather;
+        field.clear();
+        plants.clear();
+        // Wind the weather's stream on to where it had got to; a Markov schedule's picks depend on each other.
+        weatherRand = streams.weather();
+        weather = null;
+        for (int i = 0; i < weatherDraws; i++) {
+            weather = weatherSchedule.next(weather, weatherRand);
+        }
+        this.weatherDraws = weatherDraws;
+        weather = currentWeather;
+        timeOfDay = TimeOfDay.at(step);
     }
 
     /**
-     * Checks the current time of day
-     * Animal will act differently depending on the time of day
+     * Put back a saved animal as a newborn of its species in the given cell; the caller then
+     * sets the rest of its state in its slot of the field's population store.
      *
-     * @return true if it is day time, false if it is night
+     * @param species The animal's species.
+     * @param cell The index of its cell.
+     * @return The animal, which acts after every animal already put back.
      */
-    private boolean checkTimeOfDay() {
-        return (step % 4 <= 1);
+    Animal restoreAnimal(Species species, int cell) {
+        if (!species.isAnimal()) {
+            throw new IllegalArgumentException(species + " is not an animal");
+        }
+        Animal animal = species.createAnimal(profiles[species.getCode()], false, field, cell, false, plants);
+        animals.add(animal);
+        return animal;
     }
 
     /**
-     * retrieves the probability value corresponding to the key from the population base statistic property file
-     * @param key name of the probability being searched for
-     * @return corresponding double probability value
+     * Finish putting back a saved simulation and show it to the observers.
      */
-    public double getStatistic(String key){
-        return Double.parseDouble(file.accessProperty(key));
+    void endRestore() {
+        if (calendar != null) {
+            fillCalendar();
+        }
+        if (Field.VERIFY_COUNTS) {
+            verifyCounts();
+        }
+        notifyObservers();
     }
 
 
@@ -0,0 +1,73 @@
+import java.awt.*;
+
+/**
+ * The graphical front end of a simulation: one window for the animals and one for the plants.
+ * It observes a simulator and redraws both windows whenever the simulator reports a change.
+ *
+ * @author David J. Barnes and Michael Kölling and Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class SimulatorGui implements SimulatorObserver {
+    // A graphical view of the simulation.
+    private SimulatorView animalView;
+    private SimulatorView plantView;
+
+    /**
+     * Create the windows for a simulation.
+     *
+     * @param simulator The simulation the windows display and control.
+     * @param depth Depth of the simulation's field.
+     * @param width Width of the simulation's field.
+     */
+    public SimulatorGui(Simulator simulator, int depth, int width) {
+        // Create a view of the state of each location in the field.
+        plantView = new SimulatorView(depth, width, simulator);
+        animalView = new SimulatorView(depth, width, simulator);
+        setColors();
+    }
+
+    /**
+     * Create the windows for showing fields that no simulation is running on, such as those
+     * of a journal being played back. The windows have no buttons.
+     *
+     * @param depth Depth of the fields.
+     * @param width Width of the fields.
+     */
+    public SimulatorGui(int depth, int width) {
+        plantView = new SimulatorView(depth, width);
+        animalView = new SimulatorView(depth, width);
+        setColors();
+    }
+
+    /**
+     * Give each species its colour, animals in the animals' window and the rest in the plants'.
+     */
+    private void setColors() {
+        for (Species species : Species.values()) {
+            SimulatorView view = species.isAnimal() ? animalView : plantView;
+            view.setColor(species, new Color(species.getColor()));
+        }
+    }
+
+    /**
+     * Redraw both windows.
+     * @param simulator The simulation that has changed.
+     */
+    @Override
+    public void simulationUpdated(Simulator simulator) {
+        show(simulator.getStep(), simulator.getField(), simulator.getPlantField(), simulator.getWeather(), simulator.isDay());
+    }
+
+    /**
+     * Redraw both windows from the given fields.
+     * @param step The step the fields are at.
+     * @param field The animals' field.
+     * @param plantField The plants' field.
+     * @param weather The weather condition.
+     * @param day Whether it is day time.
+     */
+    public void show(int step, Field field, Field plantField, Weather weather, boolean day) {
+        animalView.showStatus(step, field, weather, day);
+        plantView.showStatus(step, plantField, weather, day);
+    }
+}
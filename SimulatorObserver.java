@@ -0,0 +1,15 @@
+/**
+ * Something that is told about the state of a simulation after it is reset and after every step,
+ * such as the graphical view or a progress report.
+ * The simulator itself does not depend on any particular observer, so it can run without a display.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public interface SimulatorObserver {
+    /**
+     * Called after the simulation has been reset and after each step.
+     * @param simulator The simulation that has changed.
+     */
+    void simulationUpdated(Simulator simulator);
+}
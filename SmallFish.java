@@ -1,6 +1,4 @@
-import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
 
 /**
  * A class containing the shared characteristics and methods of small fish
@@ -11,23 +9,37 @@ import java.util.Random;
  */
 
 public class SmallFish extends Prey{
-    private static final Random rand = Randomizer.getRandom();
 
     /**
      * Create a small fish as a newborn (age zero and not hungry) or with a random age and food level.
      *
+     * @param profile   The characteristics shared by all small fish.
      * @param randomAge If true, the fish will have a randomised age and hunger level.
      * @param field     The field currently occupied.
-     * @param location  Its location within the field.
+     * @param cell  The index of its cell within the field.
      * @param gender    Its gender, with true representing female and false representing male
      */
-    public SmallFish(boolean randomAge, Field field, Location location, boolean gender, Field plantField) {
-        super(randomAge, field, location, gender, plantField);
-        setBREEDING_AGE(getBaseValue("smallBreedingAge"));
-        setMAX_AGE(getBaseValue("smallMaxAge"));
-        setBREEDING_PROBABILITY(getStatistic("smallBreedingProbability"));
-        setMAX_LITTER_SIZE(getBaseValue("smallMaxLitterSize"));
-        setNutritionalValue(getBaseValue("smallNutritionalValue"));
+    public SmallFish(SpeciesProfile profile, boolean randomAge, Field field, int cell, boolean gender, PlantLayer plants) {
+        super(profile, randomAge, field, cell, gender, plants);
+    }
+
+    /**
+     * Create a newborn small fish, reusing a dead one kept by the field's population store if there is one.
+     *
+     * @param profile The characteristics shared by all small fish.
+     * @param field The field the small fish is born on.
+     * @param cell The index of its cell within the field.
+     * @param gender The newborn's gender.
+     * @param plants The plants it eats.
+     * @return The newborn small fish.
+     */
+    public static SmallFish newborn(SpeciesProfile profile, Field field, int cell, boolean gender, PlantLayer plants) {
+        SmallFish young = (SmallFish) field.getPopulation().reuse(Species.SMALL_FISH);
+        if(young == null) {
+            return new SmallFish(profile, false, field, cell, gender, plants);
+        }
+        young.reborn(cell, gender);
+        return young;
     }
 
     /**
@@ -41,9 +53,9 @@ public class SmallFish extends Prey{
         if(isAlive()) {
             findPlant();
             giveBirth(newSmallFish);
-            Location newLocation = getField().freeAdjacentLocation(getLocation());
-            if(newLocation != null) { // See if it was possible to move.
-                setLocation(newLocation);
+            int newCell = getField().freeAdjacentCell(getCell());
+            if(newCell >= 0) { // See if it was possible to move.
+                setCell(newCell);
             }
             else {
                 // Overcrowding.
@@ -63,9 +75,9 @@ public class SmallFish extends Prey{
             findPlant();
             giveBirth(newSmallFish);
             //findMate(newSmallFish);
-            Location newLocation = getField().freeAdjacentLocation(getLocation());
-            if (newLocation != null) { // See if it was possible to move.
-                setLocation(newLocation);
+            int newCell = getField().freeAdjacentCell(getCell());
+            if (newCell >= 0) { // See if it was possible to move.
+                setCell(newCell);
             } else {
                 // Overcrowding.
                 setDead();
@@ -83,9 +95,9 @@ public class SmallFish extends Prey{
         incrementAge();
         if (isAlive()) {
             findPlant();
-            Location newLocation = getField().freeAdjacentLocation(getLocation());
-            if(newLocation != null) { // See if it was possible to move.
-                setLocation(newLocation);
+            int newCell = getField().freeAdjacentCell(getCell());
+            if(newCell >= 0) { // See if it was possible to move.
+                setCell(newCell);
             }
             else {
                 // Overcrowding.
@@ -102,11 +114,12 @@ public class SmallFish extends Prey{
      */
     protected void giveBirth(List<Animal> newPrey) {
         Field field = getField();
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
+        int[] free = getFreeBuffer();
+        int freeCount = field.freeAdjacentCells(getCell(), free);
         int births = breed();
-        for(int b = 0; b < births && free.size() > 0; b++) {
-            Location loc = free.remove(0);
-            SmallFish young = new SmallFish(false, field, loc, rand.nextBoolean(), plantField);
+        for(int b = 0; b < births && b < freeCount; b++) {
+            int loc = free[b];
+            SmallFish young = SmallFish.newborn(profile, field, loc, Randomizer.getRandom().nextBoolean(), plants);
             newPrey.add(young);
         }
     }
@@ -0,0 +1,170 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Picks what each cell of a new field starts with: at most one animal and its gender, and a plant or not.
+ *
+ * A cell is offered to each animal species in turn, in the order of the species, and is given
+ * the first that its creation probability lets have it; separately, it is given a plant with
+ * the plants' creation probability. Rather than drawing a random number for every species
+ * tried, the chances of every outcome are worked out once, when the table is made, and a cell's
+ * outcome is picked from them with a single draw by Walker's alias method: the top bits of a
+ * random long choose one of the table's columns, all equally likely, the bits below them a
+ * fraction that decides whether to keep the column's own outcome or take its alias, and the
+ * lowest bit the gender of the cell's animal. The table has far more columns than there are
+ * outcomes, most of them given wholly to one outcome, so that which way the choice goes is
+ * nearly always the same as the last time that column was drawn and costs the processor no
+ * mispredicted branches.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class SpawnTable {
+    // The number of columns of the table, and the bits of a draw that pick one.
+    private static final int COLUMN_BITS = 12;
+    private static final int COLUMNS = 1 << COLUMN_BITS;
+    // The bits of a draw, below the column's, that make the fraction; the lowest bit is left for the gender.
+    private static final int FRACTION_BITS = Long.SIZE - COLUMN_BITS - 1;
+    private static final double FRACTION_SCALE = 1.0 / (1L << FRACTION_BITS);
+
+    // The animal species of each outcome, or null for none, and whether it has a plant.
+    // Only the first few columns are outcomes of their own; the rest are given to their aliases.
+    private final Species[] animals;
+    private final boolean[] plants;
+    // For each column, the chance of keeping its own outcome rather than taking its alias.
+    private final double[] keep;
+    private final int[] alias;
+
+    /**
+     * Work out the chances of every outcome from a configuration's creation probabilities.
+     * @param config The base statistics of the simulation.
+     */
+    public SpawnTable(Configuration config) {
+        List<Species> animalSpecies = new ArrayList<>();
+        List<Double> animalChances = new ArrayList<>();
+        // The chance that no species tried so far has taken the cell.
+        double untaken = 1;
+        for (Species species : Species.values()) {
+            if (species.isAnimal()) {
+                double probability = config.getCreationProbability(species);
+                animalSpecies.add(species);
+                animalChances.add(untaken * probability);
+                untaken *= 1 - probability;
+            }
+        }
+        animalSpecies.add(null);
+        animalChances.add(untaken);
+
+        double plant = config.getCreationProbability(Species.PLANT);
+        int count = 2 * animalSpecies.size();
+        animals = new Species[count];
+        plants = new boolean[count];
+        // Species.CODE_BITS keeps the number of species, and so of outcomes, far below COLUMNS.
+        double[] chances = new double[COLUMNS];
+        for (int a = 0; a < animalSpecies.size(); a++) {
+            for (int p = 0; p < 2; p++) {
+                int outcome = 2 * a + p;
+                animals[outcome] = animalSpecies.get(a);
+                plants[outcome] = p == 1;
+                chances[outcome] = animalChances.get(a) * (p == 1 ? plant : 1 - plant);
+            }
+        }
+        keep = new double[chances.length];
+        alias = new int[chances.length];
+        buildAliases(chances, count);
+    }
+
+    /**
+     * Pick an outcome, and a gender for its animal, with a single random number.
+     * @param rand The random number generator to draw from.
+     * @return The outcome, for getAnimal, getGender and hasPlant.
+     */
+    public int sample(RandomGenerator rand) {
+        long bits = rand.nextLong();
+        int column = (int) (bits >>> (Long.SIZE - COLUMN_BITS));
+        double fraction = ((bits >>> 1) & ((1L << FRACTION_BITS) - 1)) * FRACTION_SCALE;
+        int outcome = fraction < keep[column] ? column : alias[column];
+        return outcome << 1 | (int) (bits & 1);
+    }
+
+    /**
+     * @param outcome An outcome returned by sample.
+     * @return The species of the animal the cell starts with, or null if it has none.
+     */
+    public Species getAnimal(int outcome) {
+        return animals[outcome >>> 1];
+    }
+
+    /**
+     * @param outcome An outcome returned by sample.
+     * @return The gender of the cell's animal, true and false being equally likely.
+     */
+    public boolean getGender(int outcome) {
+        return (outcome & 1) != 0;
+    }
+
+    /**
+     * @param outcome An outcome returned by sample.
+     * @return true if the cell starts with a plant.
+     */
+    public boolean hasPlant(int outcome) {
+        return plants[outcome >>> 1];
+    }
+
+    /**
+     * Fill the columns by Vose's method: each column holding less than its share of the chances
+     * is topped up from the alias of one holding more.
+     * @param chances The chance of each column's outcome, summing to one; the columns from
+     *                outcomes on have none.
+     * @param outcomes The number of outcomes.
+     */
+    private void buildAliases(double[] chances, int outcomes) {
+        int count = chances.length;
+        double[] scaled = new double[count];
+        int[] small = new int[count];
+        int[] large = new int[count];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < count; i++) {
+            scaled[i] = chances[i] * count;
+            if (scaled[i] < 1) {
+                small[smallCount++] = i;
+            }
+            else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int less = small[--smallCount];
+            int more = large[--largeCount];
+            keep[less] = scaled[less];
+            alias[less] = more;
+            scaled[more] -= 1 - scaled[less];
+            if (scaled[more] < 1) {
+                small[smallCount++] = more;
+            }
+            else {
+                large[largeCount++] = more;
+            }
+        }
+        // Whatever is left holds its share, give or take rounding; a column with no outcome of
+        // its own is given to the likeliest outcome.
+        int likeliest = 0;
+        for (int i = 1; i < outcomes; i++) {
+            if (chances[i] > chances[likeliest]) {
+                likeliest = i;
+            }
+        }
+        while (largeCount > 0) {
+            int column = large[--largeCount];
+            keep[column] = 1;
+            alias[column] = column;
+        }
+        while (smallCount > 0) {
+            int column = small[--smallCount];
+            keep[column] = column < outcomes ? 1 : 0;
+            alias[column] = column < outcomes ? column : likeliest;
+        }
+    }
+}
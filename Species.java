@@ -0,0 +1,268 @@
+/**
+ * The kinds of living thing that can occupy a cell of a field.
+ * Each species has a small numeric code, which the field stores alongside its occupants so that
+ * neighbours can be classified, counted and drawn without looking at the occupying objects.
+ * Code 0 is reserved for an empty cell.
+ *
+ * The species are also the registry of what the simulation is made of: each one says how it is
+ * drawn, what the keys of its characteristics in the population base statistics file start with,
+ * and how its animals are made. The configuration, the simulator and the display work from the
+ * registry, and the masks below from the species' classes, so a new species needs its class, a
+ * constant here and its keys in the file. A characteristic a species does not have, such as the
+ * nutritional value of one that is never eaten, is fixed on its constant instead, and its key is
+ * then not read. Only behaviour names other species: what a species
+ * eats is in its own class, and TurnCalendar lists the species whose turns can be skipped.
+ * The order of the constants is the order in which a cell's occupant is tried when the field
+ * is populated.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public enum Species {
+    // Sharks are never eaten, and never made ill by neglect.
+    SHARK(Shark.class, "Shark", "shark", 0x000000,
+            (profile, randomAge, field, cell, gender, plants) -> new Shark(profile, randomAge, field, cell, gender),
+            null, 0, SpeciesProfile.NO_DISEASE_LIMIT),
+    TUNA(Tuna.class, "Tuna", "tuna", 0xFF0000,
+            (profile, randomAge, field, cell, gender, plants) -> new Tuna(profile, randomAge, field, cell, gender),
+            null, null, SpeciesProfile.NO_DISEASE_LIMIT),
+    HELPER_FISH(HelperFish.class, "HelperFish", "helper", 0xFFFF00, HelperFish::new,
+            null, null, SpeciesProfile.NO_DISEASE_LIMIT),
+    SMALL_FISH(SmallFish.class, "SmallFish", "small", 0x00FFFF, SmallFish::new,
+            null, null, SpeciesProfile.NO_DISEASE_LIMIT),
+    // Whales always start as newborns and have no gender; they breed whenever they can and are never eaten.
+    WHALE(Whale.class, "Whale", "whale", 0x0000FF,
+            (profile, randomAge, field, cell, gender, plants) -> new Whale(profile, field, cell),
+            1.0, 0, null),
+    // Plants are not objects; they are kept by a PlantLayer.
+    PLANT(PlantLayer.class, "Plant", "plant", 0x00FF00, null, null, null, null);
+
+    // The code of an empty cell.
+    public static final byte EMPTY = 0;
+    // The mask matching empty cells.
+    public static final int EMPTY_MASK = 1;
+    // The mask matching every prey species.
+    public static final int PREY_MASK = maskOf(Prey.class);
+    // The mask matching every animal.
+    public static final int ANIMAL_MASK = maskOf(Animal.class);
+    // The number of codes in use, including the empty code.
+    public static final int CODE_COUNT = values().length + 1;
+    // The number of bits a code is packed into beside a cell index, in state hashes and journals,
+    // and the mask that takes it back out.
+    public static final int CODE_BITS = 3;
+    public static final int CODE_MASK = (1 << CODE_BITS) - 1;
+
+    static {
+        if(CODE_COUNT > 1 << CODE_BITS) {
+            throw new IllegalStateException(CODE_COUNT + " species codes do not fit in " + CODE_BITS
+                    + " bits; raise Species.CODE_BITS, which changes the state hashes and the journal format");
+        }
+    }
+
+    private static final Species[] BY_CODE = values();
+
+    private final Class<?> entityClass;
+    private final String displayName;
+    // The colour the species is drawn in, as 0xRRGGBB, so that a simulation without a display loads no windowing classes.
+    private final int color;
+    // What the keys of the species' characteristics in the population base statistics file start with.
+    private final String keyPrefix;
+    // Makes the species' animals; null for plants.
+    private final AnimalFactory factory;
+    // The characteristics the species does not have, fixed rather than read; null for those it does.
+    private final Double fixedBreedingProbability;
+    private final Integer fixedNutritionalValue;
+    private final Integer fixedDiseaseLimit;
+    private final byte code;
+
+    /**
+     * @param entityClass The class whose instances belong to the species, or that keeps them.
+     * @param displayName The name shown in summaries.
+     * @param keyPrefix What the keys of the species' characteristics start with, such as "tuna" for "tunaMaxAge".
+     * @param color The colour the species is drawn in, as 0xRRGGBB.
+     * @param factory Makes an animal of the species, or null if it is not an animal.
+     * @param fixedBreedingProbability The breeding probability of a species that has none in the file, or null.
+     * @param fixedNutritionalValue The nutritional value of a species that has none in the file, or null.
+     * @param fixedDiseaseLimit The disease limit of a species that has none in the file, or null.
+     */
+    Species(Class<?> entityClass, String displayName, String keyPrefix, int color, AnimalFactory factory,
+            Double fixedBreedingProbability, Integer fixedNutritionalValue, Integer fixedDiseaseLimit) {
+        this.entityClass = entityClass;
+        this.displayName = displayName;
+        this.keyPrefix = keyPrefix;
+        this.color = color;
+        this.factory = factory;
+        this.fixedBreedingProbability = fixedBreedingProbability;
+        this.fixedNutritionalValue = fixedNutritionalValue;
+        this.fixedDiseaseLimit = fixedDiseaseLimit;
+        this.code = (byte) (ordinal() + 1);
+    }
+
+    /**
+     * Makes an animal of one species in a cell of a field.
+     */
+    @FunctionalInterface
+    public interface AnimalFactory {
+        /**
+         * @param profile The characteristics of the species.
+         * @param randomAge If true, the animal is given a random age and food level; otherwise it is a newborn.
+         * @param field The field the animal is placed in.
+         * @param cell The index of its cell.
+         * @param gender The animal's gender, for species that have one.
+         * @param plants The plants, for species that eat them.
+         * @return The new animal.
+         */
+        Animal create(SpeciesProfile profile, boolean randomAge, Field field, int cell, boolean gender, PlantLayer plants);
+    }
+
+    /**
+     * @return The class whose instances belong to the species, or for plants the class that keeps them.
+     */
+    public Class<?> getEntityClass() {
+        return entityClass;
+    }
+
+    /**
+     * @return The name of the species shown in summaries, such as "SmallFish".
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return The colour the species is drawn in, as 0xRRGGBB.
+     */
+    public int getColor() {
+        return color;
+    }
+
+    /**
+     * @return true if the species' members are Animal objects, rather than kept by a layer of their own.
+     */
+    public boolean isAnimal() {
+        return factory != null;
+    }
+
+    /**
+     * @return What the keys of the species' characteristics in the population base statistics
+     *         file start with, such as "tuna" for "tunaMaxAge".
+     */
+    public String getKeyPrefix() {
+        return keyPrefix;
+    }
+
+    /**
+     * @return The species' breeding probability if it is fixed here, or null if it is read from the file.
+     */
+    public Double getFixedBreedingProbability() {
+        return fixedBreedingProbability;
+    }
+
+    /**
+     * @return The species' nutritional value if it is fixed here, or null if it is read from the file.
+     */
+    public Integer getFixedNutritionalValue() {
+        return fixedNutritionalValue;
+    }
+
+    /**
+     * @return The species' disease limit if it is fixed here, or null if it is read from the file.
+     */
+    public Integer getFixedDiseaseLimit() {
+        return fixedDiseaseLimit;
+    }
+
+    /**
+     * Make an animal of this species and place it in a cell of a field.
+     * @param profile The species' profile, from Configuration.getProfile.
+     * @param randomAge If true, the animal is given a random age and food level; otherwise it is a newborn.
+     * @param field The field the animal is placed in.
+     * @param cell The index of its cell.
+     * @param gender The animal's gender, for species that have one.
+     * @param plants The plants, for species that eat them.
+     * @return The new animal.
+     * @throws UnsupportedOperationException if the species is not an animal.
+     */
+    public Animal createAnimal(SpeciesProfile profile, boolean randomAge, Field field, int cell, boolean gender,
+                               PlantLayer plants) {
+        if(factory == null) {
+            throw new UnsupportedOperationException(this + " is not an animal");
+        }
+        return factory.create(profile, randomAge, field, cell, gender, plants);
+    }
+
+    /**
+     * @return The code stored in a field for this species.
+     */
+    public byte getCode() {
+        return code;
+    }
+
+    /**
+     * @return A mask with only this species' bit set, for combining with other masks.
+     */
+    public int mask() {
+        return 1 << code;
+    }
+
+    /**
+     * @param kind A class of entity.
+     * @return A mask matching every species whose entities are of that class.
+     */
+    private static int maskOf(Class<?> kind) {
+        int mask = 0;
+        for(Species species : values()) {
+            if(kind.isAssignableFrom(species.entityClass)) {
+                mask |= species.mask();
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Check whether a code is matched by a mask.
+     * @param mask A combination of species masks.
+     * @param code A species code, or EMPTY.
+     * @return true if the mask includes the code.
+     */
+    public static boolean matches(int mask, byte code) {
+        return (mask & (1 << code)) != 0;
+    }
+
+    /**
+     * @param code A species code, or EMPTY.
+     * @return The species with the given code, or null for an empty cell.
+     */
+    public static Species fromCode(byte code) {
+        return code == EMPTY ? null : BY_CODE[code - 1];
+    }
+
+    /**
+     * Find the species of an object stored in a field.
+     * @param occupant An animal, or a Species standing in for an occupant that is not an object.
+     * @return Its species, or null if it is neither.
+     */
+    public static Species of(Object occupant) {
+        if(occupant instanceof Animal) {
+            return ((Animal) occupant).getSpecies();
+        }
+        if(occupant instanceof Species) {
+            return (Species) occupant;
+        }
+        return null;
+    }
+
+    /**
+     * Find the species of a class of animal or plant.
+     * @param entityClass The class to look up.
+     * @return The species whose class it is, or null if there is none.
+     */
+    public static Species of(Class<?> entityClass) {
+        for(Species species : BY_CODE) {
+            if(species.entityClass == entityClass) {
+                return species;
+            }
+        }
+        return null;
+    }
+}
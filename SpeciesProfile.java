@@ -0,0 +1,85 @@
+/**
+ * The fixed characteristics of one species, such as its breeding age and maximum age.
+ * A profile is built once by the configuration, from the keys that start with the species' key
+ * prefix, and is shared by every animal of that species, so that an animal only holds its own
+ * state (age, food, gender, disease).
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class SpeciesProfile {
+    // The disease limit of a species that neglect never makes ill.
+    public static final int NO_DISEASE_LIMIT = Integer.MAX_VALUE;
+
+    private final Species species;
+    private final int breedingAge;
+    private final int maxAge;
+    private final double breedingProbability;
+    private final int maxLitterSize;
+    private final int nutritionalValue;
+    private final int startingFoodLevel;
+    private final double diseaseProbability;
+    private final int diseaseLimit;
+
+    /**
+     * Create a species profile.
+     *
+     * @param species The species the profile describes.
+     * @param breedingAge The age at which the species can begin breeding.
+     * @param maxAge The maximum age the species can live to.
+     * @param breedingProbability The probability of successful breeding.
+     * @param maxLitterSize The maximum number of offspring produced at once.
+     * @param nutritionalValue The nutritional value the species provides when eaten.
+     * @param startingFoodLevel The food level of a newborn.
+     * @param diseaseProbability The probability that a diseased animal dies each step.
+     * @param diseaseLimit The number of steps without care before the species becomes diseased.
+     */
+    public SpeciesProfile(Species species, int breedingAge, int maxAge, double breedingProbability, int maxLitterSize,
+                          int nutritionalValue, int startingFoodLevel, double diseaseProbability, int diseaseLimit) {
+        this.species = species;
+        this.breedingAge = breedingAge;
+        this.maxAge = maxAge;
+        this.breedingProbability = breedingProbability;
+        this.maxLitterSize = maxLitterSize;
+        this.nutritionalValue = nutritionalValue;
+        this.startingFoodLevel = startingFoodLevel;
+        this.diseaseProbability = diseaseProbability;
+        this.diseaseLimit = diseaseLimit;
+    }
+
+    public Species getSpecies() {
+        return species;
+    }
+
+    public int getBreedingAge() {
+        return breedingAge;
+    }
+
+    public int getMaxAge() {
+        return maxAge;
+    }
+
+    public double getBreedingProbability() {
+        return breedingProbability;
+    }
+
+    public int getMaxLitterSize() {
+        return maxLitterSize;
+    }
+
+    public int getNutritionalValue() {
+        return nutritionalValue;
+    }
+
+    public int getStartingFoodLevel() {
+        return startingFoodLevel;
+    }
+
+    public double getDiseaseProbability() {
+        return diseaseProbability;
+    }
+
+    public int getDiseaseLimit() {
+        return diseaseLimit;
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.Locale;
+
+/**
+ * Stops a simulation once the population of every species, plants included, has stayed within
+ * a band around where it was for a given number of steps in a row.
+ *
+ * The band is set by the counts at the step the populations last moved outside it: a count
+ * stays in the band while it differs from that step's count by no more than epsilon times it
+ * (and by no more than epsilon for a species that had died out).
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class SteadyStateCondition implements StopCondition {
+    private static final Species[] SPECIES = Species.values();
+
+    // How far a count may move, as a fraction of where it started, and for how many steps it must stay.
+    private final double epsilon;
+    private final int steps;
+    // The counts the band is centred on, indexed by species ordinal, and how many steps have stayed in it.
+    private final int[] reference;
+    private int steady;
+    private boolean started;
+
+    /**
+     * Create a condition that waits for the populations to settle.
+     * @param epsilon How far a count may move, as a fraction of its starting value, such as 0.05.
+     * @param steps For how many steps in a row every count must stay within the band.
+     */
+    public SteadyStateCondition(double epsilon, int steps) {
+        if (!(epsilon >= 0) || steps < 1) {
+            throw new IllegalArgumentException("Need a band of at least 0 and at least one step, not "
+                    + epsilon + " for " + steps);
+        }
+        this.epsilon = epsilon;
+        this.steps = steps;
+        reference = new int[SPECIES.length];
+    }
+
+    @Override
+    public String check(Simulator simulator) {
+        boolean inBand = started;
+        for (Species species : SPECIES) {
+            int count = countOf(simulator, species);
+            int from = reference[species.ordinal()];
+            if (Math.abs(count - from) > epsilon * Math.max(from, 1)) {
+                inBand = false;
+            }
+        }
+        if (!inBand) {
+            for (Species species : SPECIES) {
+                reference[species.ordinal()] = countOf(simulator, species);
+            }
+            started = true;
+            steady = 0;
+            return null;
+        }
+        steady++;
+        if (steady >= steps) {
+            return String.format(Locale.ROOT, "every population stayed within %.1f%% for %d steps", epsilon * 100, steps);
+        }
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        started = false;
+        steady = 0;
+    }
+
+    /**
+     * @return The number of living members of a species in a simulation.
+     */
+    private static int countOf(Simulator simulator, Species species) {
+        Field field = species == Species.PLANT ? simulator.getPlantField() : simulator.getField();
+        return field.getCount(species);
+    }
+}
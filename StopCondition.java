@@ -0,0 +1,68 @@
+import java.util.Locale;
+
+/**
+ * Something that decides when a simulation has run far enough, such as when a species has died
+ * out or the populations have settled. The simulator asks each of its stop conditions after every
+ * step, so a condition should take time in proportion to the number of species, not the field.
+ *
+ * A condition may remember earlier steps; it is told when the simulation is reset so that it can
+ * forget them.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public interface StopCondition {
+    /**
+     * Decide whether the simulation should stop after its latest step.
+     * @param simulator The simulation, just after a step.
+     * @return Why the simulation should stop, or null to let it carry on.
+     */
+    String check(Simulator simulator);
+
+    /**
+     * Forget everything seen so far, because the simulation has been reset.
+     */
+    default void reset() {
+    }
+
+    /**
+     * Make a stop condition from a description given on the command line:
+     * "extinction" to stop when any species of animal dies out, "extinction:SPECIES,..." to
+     * stop when any of the named species does, "steady:EPSILON:STEPS" to stop once every
+     * population has stayed within EPSILON of where it was for STEPS steps, and "repeat:STEPS"
+     * to stop when the state of one of the last STEPS steps comes back.
+     *
+     * @param description The description.
+     * @return A new condition, with nothing seen yet.
+     * @throws IllegalArgumentException if the description is not one of these.
+     */
+    static StopCondition parse(String description) {
+        String[] parts = description.split(":");
+        switch (parts[0]) {
+            case "extinction":
+                if (parts.length == 1) {
+                    return new ExtinctionCondition();
+                }
+                String[] names = parts[1].split(",");
+                Species[] species = new Species[names.length];
+                for (int i = 0; i < names.length; i++) {
+                    species[i] = Species.valueOf(names[i].trim().toUpperCase(Locale.ROOT));
+                }
+                return new ExtinctionCondition(species);
+            case "steady":
+                if (parts.length == 3) {
+                    return new SteadyStateCondition(Double.parseDouble(parts[1]), Integer.parseInt(parts[2]));
+                }
+                break;
+            case "repeat":
+                if (parts.length == 2) {
+                    return new RepeatCondition(Integer.parseInt(parts[1]));
+                }
+                break;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unknown stop condition \"" + description
+                + "\"; expected extinction[:SPECIES,...], steady:EPSILON:STEPS or repeat:STEPS");
+    }
+}
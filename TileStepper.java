@@ -0,0 +1,282 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * Runs the turns of a step on several threads at once.
+ *
+ * The field is cut into square tiles, and the tiles are coloured like a checkerboard with
+ * two colours in each direction, so that two tiles of the same colour always have a whole
+ * tile between them. Everything an animal or plant does in its turn happens in its own cell
+ * or an adjacent one, so the tiles of one colour never touch the same cell and can be run
+ * together; the four colours are run one after another.
+ *
+ * Each tile draws its random numbers from a stream of its own, picked out by the step, the
+ * pass and the tile from the run's random streams, and newborns are gathered tile by tile
+ * in a fixed order. A run therefore gives the same result whatever number of threads it is given.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class TileStepper {
+    // The smallest tile that keeps tiles of the same colour from reaching the same cell.
+    public static final int MIN_TILE_SIZE = 2;
+    // The tile size used when none is given.
+    public static final int DEFAULT_TILE_SIZE = 16;
+
+    // The fields whose contents the turns change.
+    private final Field[] fields;
+    private final int width;
+    private final int tileSize;
+    private final int tilesAcross;
+    // The tile indices of each of the four colours.
+    private final int[][] colours;
+    // The run's random streams, from which each tile's stream is taken.
+    private final RandomStreams streams;
+    private final ForkJoinPool pool;
+
+    // The entities whose turn it is in each tile, and the entities born there.
+    private final List<Object>[] residents;
+    private final List<Object>[] born;
+
+    /**
+     * Create a stepper for fields of the same size.
+     *
+     * @param tileSize The width and depth of each tile, at least MIN_TILE_SIZE.
+     * @param workers The number of threads to run tiles on.
+     * @param streams The run's random streams, from which each tile's stream is taken.
+     * @param fields The fields changed by the turns; the first gives the size.
+     */
+    @SuppressWarnings("unchecked")
+    public TileStepper(int tileSize, int workers, RandomStreams streams, Field... fields) {
+        if(tileSize < MIN_TILE_SIZE) {
+            throw new IllegalArgumentException("Tiles must be at least " + MIN_TILE_SIZE + " cells wide, not " + tileSize);
+        }
+        if(workers < 1) {
+            throw new IllegalArgumentException("At least one worker thread is needed, not " + workers);
+        }
+        this.fields = fields;
+        this.width = fields[0].getWidth();
+        this.tileSize = tileSize;
+        this.streams = streams;
+        tilesAcross = (width + tileSize - 1) / tileSize;
+        int tilesDown = (fields[0].getDepth() + tileSize - 1) / tileSize;
+        int tileCount = tilesAcross * tilesDown;
+
+        int[] colourSizes = new int[4];
+        for(int tile = 0; tile < tileCount; tile++) {
+            colourSizes[colourOf(tile)]++;
+        }
+        colours = new int[4][];
+        for(int colour = 0; colour < 4; colour++) {
+            colours[colour] = new int[colourSizes[colour]];
+            colourSizes[colour] = 0;
+        }
+        for(int tile = 0; tile < tileCount; tile++) {
+            int colour = colourOf(tile);
+            colours[colour][colourSizes[colour]++] = tile;
+        }
+
+        residents = emptyLists(tileCount);
+        born = emptyLists(tileCount);
+        pool = new ForkJoinPool(workers);
+    }
+
+    /**
+     * Give every entity in the list its turn, tile by tile.
+     * Entities that are dead when the step starts are skipped.
+     *
+     * @param entities The entities to act, in the order they act within a tile.
+     * @param cellOf Gives an entity's cell, or -1 if it has died.
+     * @param turn Makes an entity act, given a list to receive its newborns.
+     * @param newborns Receives every newborn, tile by tile.
+     * @param step The number of the step, which together with the pass picks the random numbers.
+     * @param pass Which pass of the step this is, for steps that make more than one.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> void run(List<T> entities, ToIntFunction<T> cellOf, BiConsumer<T, List<T>> turn,
+                        List<T> newborns, int step, int pass) {
+        for(T entity : entities) {
+            int cell = cellOf.applyAsInt(entity);
+            if(cell >= 0) {
+                residents[tileOf(cell)].add(entity);
+            }
+        }
+
+        BiConsumer<Object, List<Object>> anyTurn = (BiConsumer<Object, List<Object>>) (BiConsumer<?, ?>) turn;
+        invoke(tile -> {
+            List<Object> tileBorn = born[tile];
+            for(Object resident : residents[tile]) {
+                anyTurn.accept(resident, tileBorn);
+            }
+        }, true, step, pass);
+
+        for(int tile = 0; tile < residents.length; tile++) {
+            residents[tile].clear();
+            newborns.addAll((List<T>) born[tile]);
+            born[tile].clear();
+        }
+    }
+
+    /**
+     * Run a sweep over every tile, such as the plants' regrowth, which works on the cells of
+     * a tile rather than on a list of entities.
+     *
+     * @param sweep Works on the cells of one tile, given as rows and columns.
+     * @param step The number of the step, which together with the pass picks the random numbers.
+     * @param pass Which pass of the step this is, for steps that make more than one.
+     */
+    public void runTiles(TileSweep sweep, int step, int pass) {
+        int depth = fields[0].getDepth();
+        invoke(tile -> {
+            int firstRow = tile / tilesAcross * tileSize;
+            int firstCol = tile % tilesAcross * tileSize;
+            sweep.sweep(firstRow, Math.min(firstRow + tileSize, depth), firstCol, Math.min(firstCol + tileSize, width));
+        }, false, step, pass);
+    }
+
+    /**
+     * Run the four colours of tiles one after another, with the fields' counts kept per thread.
+     * @param tileWork The work of one tile, given the tile's index.
+     * @param residentsOnly Whether to skip tiles with no residents.
+     */
+    private void invoke(IntConsumer tileWork, boolean residentsOnly, int step, int pass) {
+        for(Field field : fields) {
+            field.deferCounts();
+        }
+        try {
+            pool.invoke(new StepTask(tileWork, residentsOnly, step, pass));
+        }
+        finally {
+            for(Field field : fields) {
+                field.mergeCounts();
+            }
+        }
+    }
+
+    /**
+     * Stop the worker threads.
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * @return The number of threads the tiles are run on.
+     */
+    public int getWorkers() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * @param cell A cell index.
+     * @return The index of the tile holding the cell.
+     */
+    private int tileOf(int cell) {
+        int row = cell / width;
+        int col = cell - row * width;
+        return (row / tileSize) * tilesAcross + col / tileSize;
+    }
+
+    /**
+     * @param tile A tile index.
+     * @return The tile's colour, from 0 to 3.
+     */
+    private int colourOf(int tile) {
+        return (tile / tilesAcross % 2) * 2 + tile % tilesAcross % 2;
+    }
+
+    /**
+     * @param count The number of lists.
+     * @return An array of that many new, empty lists.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<Object>[] emptyLists(int count) {
+        List<Object>[] lists = (List<Object>[]) new List<?>[count];
+        for(int i = 0; i < count; i++) {
+            lists[i] = new ArrayList<>();
+        }
+        return lists;
+    }
+
+    /**
+     * Runs the four colours of tiles one after another, and the tiles of each colour together.
+     */
+    private class StepTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer tileWork;
+        private final boolean residentsOnly;
+        private final int step;
+        private final int pass;
+
+        StepTask(IntConsumer tileWork, boolean residentsOnly, int step, int pass) {
+            this.tileWork = tileWork;
+            this.residentsOnly = residentsOnly;
+            this.step = step;
+            this.pass = pass;
+        }
+
+        @Override
+        protected void compute() {
+            for(int[] colour : colours) {
+                List<TileTask> tasks = new ArrayList<>(colour.length);
+                for(int tile : colour) {
+                    if(!residentsOnly || !residents[tile].isEmpty()) {
+                        tasks.add(new TileTask(tileWork, step, pass, tile));
+                    }
+                }
+                ForkJoinTask.invokeAll(tasks);
+            }
+        }
+    }
+
+    /**
+     * Does the work of one tile, using the tile's own random numbers.
+     */
+    private class TileTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final IntConsumer tileWork;
+        private final int step;
+        private final int pass;
+        private final int tile;
+
+        TileTask(IntConsumer tileWork, int step, int pass, int tile) {
+            this.tileWork = tileWork;
+            this.step = step;
+            this.pass = pass;
+            this.tile = tile;
+        }
+
+        @Override
+        protected void compute() {
+            Randomizer.setThreadRandom(streams.forTile(step, pass, tile));
+            try {
+                tileWork.accept(tile);
+            }
+            finally {
+                Randomizer.setThreadRandom(null);
+            }
+        }
+    }
+
+    /**
+     * Work done on the cells of one tile at a time.
+     */
+    public interface TileSweep {
+        /**
+         * Work on a block of cells.
+         * @param firstRow The first row of the block.
+         * @param endRow The row after the last.
+         * @param firstCol The first column of the block.
+         * @param endCol The column after the last.
+         */
+        void sweep(int firstRow, int endRow, int firstCol, int endCol);
+    }
+}
@@ -0,0 +1,22 @@
+/**
+ * The phases of the simulation's day. A day lasts four steps: two of day time, then two of night.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public enum TimeOfDay {
+    DAY,
+    NIGHT;
+
+    // The number of steps in a whole day, and how many of them are day time.
+    private static final int STEPS_PER_DAY = 4;
+    private static final int DAY_STEPS = 2;
+
+    /**
+     * @param step A step of the simulation.
+     * @return The time of day at that step.
+     */
+    public static TimeOfDay at(int step) {
+        return Math.floorMod(step, STEPS_PER_DAY) < DAY_STEPS ? DAY : NIGHT;
+    }
+}
@@ -0,0 +1,23 @@
+/**
+ * An animal some of whose turns do nothing but make it older and hungrier, so that TurnCalendar
+ * can let it sleep through them and catch it up later. Every species TurnCalendar gives such
+ * turns must be of a class that implements this.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public interface TimedAnimal {
+    /**
+     * Return how many more turns that do nothing but make the animal older and hungrier it
+     * would live through.
+     * @return The number of those turns it would survive.
+     */
+    int timedTurnsLeft();
+
+    /**
+     * Make the animal older and hungrier by a number of turns at once, as the turns it slept
+     * through would have.
+     * @param turns The number of turns, fewer than timedTurnsLeft.
+     */
+    void passTimedTurns(int turns);
+}
@@ -1,4 +1,3 @@
-import java.util.Iterator;
 import java.util.List;
 /**
  * A representation of tuna as a predator that can eat prey species, move independently, and breed
@@ -12,20 +11,34 @@ import java.util.List;
 public class Tuna extends Predator{
 
     /**
-     * Create an instance of Tuna as a newborn (age zero and not hungry) or with a random age and food level.
+     * Create an instance of Tuna at age zero, as a newborn (not hungry) or with a random food level.
      *
-     * @param randomAge If true, the tuna's age and hunger level will be randomised.
+     * @param profile   The characteristics shared by all tuna.
+     * @param randomAge If true, the tuna's food level will be randomised.
      * @param field     The field currently occupied.
-     * @param location  The location within the field.
+     * @param cell  The index of the cell within the field.
      * @param gender    The gender of the tuna
      */
-    public Tuna(boolean randomAge, Field field, Location location, boolean gender) {
-        super(randomAge, field, location, gender);
-        setBREEDING_AGE(getBaseValue("tunaBreedingAge"));
-        setMAX_AGE(getBaseValue("tunaMaxAge"));
-        setBREEDING_PROBABILITY(getStatistic("tunaBreedingProbability"));
-        setMAX_LITTER_SIZE(getBaseValue("tunaMaxLitterSize"));
-        setNutritionalValue(getBaseValue("tunaNutritionalValue"));
+    public Tuna(SpeciesProfile profile, boolean randomAge, Field field, int cell, boolean gender) {
+        super(profile, randomAge, field, cell, gender);
+    }
+
+    /**
+     * Create a newborn tuna, reusing a dead one kept by the field's population store if there is one.
+     *
+     * @param profile The characteristics shared by all tuna.
+     * @param field The field the tuna is born on.
+     * @param cell The index of its cell within the field.
+     * @param gender The newborn's gender.
+     * @return The newborn tuna.
+     */
+    public static Tuna newborn(SpeciesProfile profile, Field field, int cell, boolean gender) {
+        Tuna young = (Tuna) field.getPopulation().reuse(Species.TUNA);
+        if(young == null) {
+            return new Tuna(profile, false, field, cell, gender);
+        }
+        young.reborn(cell, gender);
+        return young;
     }
 
     /**
@@ -40,14 +53,14 @@ public class Tuna extends Predator{
         checkDisease();
         if(isAlive()) {
             findMate(newTuna);
-            Location newLocation = findFood();
-            if(newLocation == null) {
+            int newCell = findFood();
+            if(newCell < 0) {
                 // No food found - try to move to a free location.
-                newLocation = getField().freeAdjacentLocation(getLocation());
+                newCell = getField().freeAdjacentCell(getCell());
             }
             // See if it was possible to move.
-            if(newLocation != null) {
-                setLocation(newLocation);
+            if(newCell >= 0) {
+                setCell(newCell);
             }
             else { // Overcrowding
                 setDead();
@@ -63,13 +76,13 @@ public class Tuna extends Predator{
     public void nightAct(List<Animal> newTuna) {
         if (isAlive()) {
             findMate(newTuna);
-            Location newLocation = findFood();
-            if(newLocation == null) {
-                newLocation = getField().freeAdjacentLocation(getLocation());
+            int newCell = findFood();
+            if(newCell < 0) {
+                newCell = getField().freeAdjacentCell(getCell());
             }
             // See if it was possible to move.
-            if(newLocation != null) {
-                setLocation(newLocation);
+            if(newCell >= 0) {
+                setCell(newCell);
             }
             else {
                 // Overcrowding.
@@ -90,14 +103,14 @@ public class Tuna extends Predator{
         if(isAlive()) {
             findMate(newTuna);
             // Move towards a source of food if found.
-            Location newLocation = findFood();
-            if(newLocation == null) {
+            int newCell = findFood();
+            if(newCell < 0) {
                 // No food found - try to move to a free location.
-                newLocation = getField().freeAdjacentLocation(getLocation());
+                newCell = getField().freeAdjacentCell(getCell());
             }
             // See if it was possible to move.
-            if(newLocation != null) {
-                setLocation(newLocation);
+            if(newCell >= 0) {
+                setCell(newCell);
             }
             else {
                 // Overcrowding.
@@ -115,12 +128,12 @@ public class Tuna extends Predator{
         incrementHunger();
         if (isAlive()) {
             findMate(newTuna);
-            Location newLocation = findFood();
-            if (newLocation == null) {
-                newLocation = getField().freeAdjacentLocation(getLocation());
+            int newCell = findFood();
+            if (newCell < 0) {
+                newCell = getField().freeAdjacentCell(getCell());
             }
-            if (newLocation != null) {
-                setLocation(newLocation);
+            if (newCell >= 0) {
+                setCell(newCell);
             } else { // Overcrowding.
                 setDead();
             }
@@ -133,20 +146,19 @@ public class Tuna extends Predator{
      */
     protected void findMate(List<Animal> newTuna) {
         Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
-        Iterator<Location> it = adjacent.iterator();
+        int[] adjacent = getAdjacentBuffer();
+        int[] free = getFreeBuffer();
+        int count = field.adjacentCells(getCell(), adjacent);
+        int freeCount = field.freeAdjacentCells(getCell(), free);
 
-        while (it.hasNext()) {
-            Location where = it.next();
-            Object animal = field.getObjectAt(where);
-            if (animal instanceof Tuna) {
-                Tuna mate = (Tuna) animal;
+        for (int i = 0; i < count; i++) {
+            if (field.getCodeAt(adjacent[i]) == getSpecies().getCode()) {
+                Animal mate = (Animal) field.getObjectAt(adjacent[i]);
                 if (mate.isAlive() && mate.getGender() != this.getGender()) {
                     int births = breed();
-                    for (int b = 0; b < births && free.size() > 0; b++) {
-                        Location loc = free.remove(0);
-                        Tuna young = new Tuna(false, field, loc, rand.nextBoolean());
+                    for (int b = 0; b < births && b < freeCount; b++) {
+                        int loc = free[b];
+                        Tuna young = Tuna.newborn(profile, field, loc, Randomizer.getRandom().nextBoolean());
                         newTuna.add(young);
 
                     }
@@ -0,0 +1,433 @@
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Decides which animals take a turn at each step, so that an animal whose turn would change
+ * nothing is not asked to take it.
+ *
+ * What an animal does depends on the time of day and the weather, and some of its turns do
+ * nothing at all: small fish and helper fish only stay where they are in strong currents at
+ * night (Prey.strongCurrentsAct), and sharks only grow older and hungrier on warm nights
+ * (Shark.nightAct). While its species' turn is one of these, an animal sleeps. The turns that
+ * only age it are counted for the species rather than taken, and each sleeping animal is brought
+ * up to date when it is next woken, by passTimedTurns; only a species whose animals are
+ * TimedAnimals may be given such turns.
+ *
+ * A sleeping animal that those turns would kill must still die at its own step and place in the
+ * order, so every animal that can sleep through them is filed in a calendar under the step at
+ * which its timers run out: a ring of buckets, a step to each, that a step at a time is emptied.
+ * An animal is filed again when its turn changes that step, as when it eats; stale entries are
+ * dropped when their bucket comes round, and entries for a step more than a ring ahead wait for
+ * the ring to come round to them.
+ *
+ * The animals of each species are kept in the order they act, which is the order of a
+ * simulation's list of animals: an animal's place is fixed when it is put in, and the living
+ * keep their order as the dead are dropped and the newborns are put after them. The animals
+ * awake at a step are those of the species whose turn does something, merged in that order,
+ * along with the sleepers due to die; because the skipped turns change nothing, or only the
+ * timers that are caught up later, a run is the same as one in which every animal is asked.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class TurnCalendar {
+    // The number of buckets in the ring, a power of two.
+    private static final int BUCKETS = 64;
+    private static final int BUCKET_MASK = BUCKETS - 1;
+
+    /**
+     * What a species' turn does at some time of day in some weather.
+     */
+    enum Kind {
+        // The turn may do anything, so the animal takes it.
+        ACTIVE,
+        // The turn changes nothing.
+        IDLE,
+        // The turn only makes the animal older and hungrier, which may kill it.
+        TIMED
+    }
+
+    // The kind of each species' turn, indexed by time of day ordinal, weather ordinal and species code.
+    private static final Kind[][][] KINDS = kinds();
+    // Whether each species ever takes a timed turn, indexed by species code.
+    private static final boolean[] TIMED_SPECIES = timedSpecies();
+
+    // The living animals of each species, and perhaps some that have died since it last acted,
+    // in the order they act; indexed by species code.
+    private final List<ArrayList<Animal>> rosters;
+    // The place in the order given to the next animal put in.
+    private long nextOrder;
+    // Indexed by slot in the population store: each animal's place in the order, the step it is
+    // filed under, or -1, and how many of its species' timed turns it has been brought up to.
+    private long[] orderOf;
+    private int[] wakeOf;
+    private int[] syncedOf;
+    // How many timed turns each species has slept through, indexed by species code.
+    private final int[] timedTurns;
+
+    // The calendar: the animals filed under each step, by step modulo BUCKETS, with the place
+    // each had in the order when it was filed, so that an animal reborn since is not mistaken for it.
+    private final Animal[][] bucketAnimals;
+    private final long[][] bucketOrders;
+    private final int[] bucketSizes;
+
+    // The kinds of turn of the step being taken, and the animals awake for it.
+    private Kind[] kinds;
+    private final ArrayList<Animal> awake;
+    // Scratch lists for the sleepers due to die at a step and those to file again.
+    private final ArrayList<Animal> due;
+    private final ArrayList<Animal> refile;
+    // Scratch arrays for merging rosters.
+    private final List<List<Animal>> sources;
+    private final int[] heads;
+
+    /**
+     * Create an empty calendar.
+     */
+    public TurnCalendar() {
+        rosters = new ArrayList<>();
+        for (int code = 0; code < Species.CODE_COUNT; code++) {
+            rosters.add(new ArrayList<>());
+        }
+        orderOf = new long[0];
+        wakeOf = new int[0];
+        syncedOf = new int[0];
+        timedTurns = new int[Species.CODE_COUNT];
+        bucketAnimals = new Animal[BUCKETS][16];
+        bucketOrders = new long[BUCKETS][16];
+        bucketSizes = new int[BUCKETS];
+        awake = new ArrayList<>();
+        due = new ArrayList<>();
+        refile = new ArrayList<>();
+        sources = new ArrayList<>();
+        heads = new int[Species.CODE_COUNT + 1];
+    }
+
+    /**
+     * Forget every animal.
+     */
+    public void clear() {
+        for (ArrayList<Animal> roster : rosters) {
+            roster.clear();
+        }
+        for (int b = 0; b < BUCKETS; b++) {
+            Arrays.fill(bucketAnimals[b], 0, bucketSizes[b], null);
+            bucketSizes[b] = 0;
+        }
+        Arrays.fill(wakeOf, -1);
+        Arrays.fill(timedTurns, 0);
+        nextOrder = 0;
+        awake.clear();
+    }
+
+    /**
+     * Put in an animal, to act after every animal already put in.
+     * @param animal A living animal, up to date with its turns.
+     * @param step The step it was born at, or the current step.
+     */
+    public void add(Animal animal, int step) {
+        int slot = animal.getSlot();
+        if (slot >= orderOf.length) {
+            int length = Math.max(slot + 1, orderOf.length * 2);
+            orderOf = Arrays.copyOf(orderOf, length);
+            int grown = wakeOf.length;
+            wakeOf = Arrays.copyOf(wakeOf, length);
+            Arrays.fill(wakeOf, grown, length, -1);
+            syncedOf = Arrays.copyOf(syncedOf, length);
+        }
+        byte code = animal.getSpecies().getCode();
+        orderOf[slot] = nextOrder++;
+        wakeOf[slot] = -1;
+        syncedOf[slot] = timedTurns[code];
+        rosters.get(code).add(animal);
+        if (TIMED_SPECIES[code]) {
+            file(animal, step + timed(animal).timedTurnsLeft() + 1);
+        }
+    }
+
+    /**
+     * Find the animals that take a turn at a step: every animal of the species whose turn does
+     * something, brought up to date with the turns it slept through, and the sleepers whose
+     * timers run out at the step. endStep must be called once they have taken their turns.
+     *
+     * @param step The step being taken.
+     * @param timeOfDay The time of day at the step.
+     * @param weather The weather at the step.
+     * @return The animals awake, in the order they act. The list is reused by the next step.
+     */
+    public List<Animal> awake(int step, TimeOfDay timeOfDay, Weather weather) {
+        kinds = KINDS[timeOfDay.ordinal()][weather.ordinal()];
+        collectDue(step);
+        sources.clear();
+        for (int code = 0; code < Species.CODE_COUNT; code++) {
+            if (kinds[code] == Kind.ACTIVE && !rosters.get(code).isEmpty()) {
+                sources.add(rosters.get(code));
+            }
+            else if (kinds[code] == Kind.TIMED) {
+                timedTurns[code]++;
+            }
+        }
+        if (!due.isEmpty()) {
+            sources.add(due);
+        }
+        awake.clear();
+        merge(awake);
+        return awake;
+    }
+
+    /**
+     * Finish a step: file the animals that were awake under the step their timers now run out
+     * at, drop the dead of the species that acted, and put in the newborns.
+     *
+     * @param step The step just taken.
+     * @param newborns The animals born during the step, in the order they were born; those
+     *                 that have already died are dropped.
+     */
+    public void endStep(int step, List<Animal> newborns) {
+        for (int i = 0, size = awake.size(); i < size; i++) {
+            Animal animal = awake.get(i);
+            if (animal.isAlive() && TIMED_SPECIES[animal.getSpecies().getCode()]) {
+                file(animal, step + timed(animal).timedTurnsLeft() + 1);
+            }
+        }
+        for (int code = 0; code < Species.CODE_COUNT; code++) {
+            if (kinds[code] == Kind.ACTIVE) {
+                dropDead(rosters.get(code));
+            }
+        }
+        for (Animal newborn : newborns) {
+            if (newborn.isAlive()) {
+                add(newborn, step);
+            }
+            else {
+                newborn.recycle();
+            }
+        }
+    }
+
+    /**
+     * Bring every sleeping animal up to date with the turns it has slept through, as before its
+     * state is saved or read by anything other than its own turns.
+     */
+    public void settle() {
+        for (int code = 0; code < Species.CODE_COUNT; code++) {
+            if (TIMED_SPECIES[code]) {
+                for (Animal animal : rosters.get(code)) {
+                    if (animal.isAlive()) {
+                        catchUp(animal);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Add every living animal to a list, in the order they act. Call settle first if their
+     * state is to be read.
+     * @param into The list to add them to.
+     */
+    public void collect(List<Animal> into) {
+        sources.clear();
+        for (ArrayList<Animal> roster : rosters) {
+            if (!roster.isEmpty()) {
+                sources.add(roster);
+            }
+        }
+        merge(into);
+    }
+
+    /**
+     * Take the animals filed under a step out of its bucket: those due to die in a timed turn go
+     * on the due list, in the order they act; entries for later rounds of the ring stay.
+     */
+    private void collectDue(int step) {
+        int b = step & BUCKET_MASK;
+        Animal[] animals = bucketAnimals[b];
+        long[] orders = bucketOrders[b];
+        int size = bucketSizes[b];
+        int kept = 0;
+        due.clear();
+        refile.clear();
+        for (int i = 0; i < size; i++) {
+            Animal animal = animals[i];
+            long order = orders[i];
+            animals[i] = null;
+            int slot = animal.getSlot();
+            if (orderOf[slot] != order || !animal.isAlive()) {
+                continue;
+            }
+            int wake = wakeOf[slot];
+            if (wake != step) {
+                if (wake > step && ((wake - step) & BUCKET_MASK) == 0) {
+                    animals[kept] = animal;
+                    orders[kept++] = order;
+                }
+                continue;
+            }
+            wakeOf[slot] = -1;
+            byte code = animal.getSpecies().getCode();
+            if (kinds[code] == Kind.IDLE) {
+                // An idle turn puts off the end of its timers by a step.
+                refile.add(animal);
+            }
+            else if (kinds[code] == Kind.TIMED) {
+                catchUp(animal);
+                if (timed(animal).timedTurnsLeft() == 0) {
+                    // It takes this turn itself.
+                    syncedOf[slot]++;
+                    due.add(animal);
+                }
+                else {
+                    refile.add(animal);
+                }
+            }
+            // An active animal takes its turn anyway, and is filed again after it.
+        }
+        bucketSizes[b] = kept;
+        for (Animal animal : refile) {
+            int left = kinds[animal.getSpecies().getCode()] == Kind.IDLE ? 1 : timed(animal).timedTurnsLeft() + 1;
+            file(animal, step + left);
+        }
+        due.sort(Comparator.comparingLong(animal -> orderOf[animal.getSlot()]));
+    }
+
+    /**
+     * File an animal under a step, unless it is already filed there.
+     */
+    private void file(Animal animal, int step) {
+        int slot = animal.getSlot();
+        if (wakeOf[slot] == step) {
+            return;
+        }
+        wakeOf[slot] = step;
+        int b = step & BUCKET_MASK;
+        int size = bucketSizes[b];
+        if (size == bucketAnimals[b].length) {
+            bucketAnimals[b] = Arrays.copyOf(bucketAnimals[b], size * 2);
+            bucketOrders[b] = Arrays.copyOf(bucketOrders[b], size * 2);
+        }
+        bucketAnimals[b][size] = animal;
+        bucketOrders[b][size] = orderOf[slot];
+        bucketSizes[b] = size + 1;
+    }
+
+    /**
+     * Bring an animal up to date with the timed turns its species has slept through since it was last.
+     */
+    private void catchUp(Animal animal) {
+        int slot = animal.getSlot();
+        int behind = timedTurns[animal.getSpecies().getCode()] - syncedOf[slot];
+        if (behind > 0) {
+            timed(animal).passTimedTurns(behind);
+            syncedOf[slot] += behind;
+        }
+    }
+
+    /**
+     * @return An animal of a species that takes timed turns, as the TimedAnimal timedSpecies checked it is.
+     */
+    private static TimedAnimal timed(Animal animal) {
+        return (TimedAnimal) animal;
+    }
+
+    /**
+     * Merge the sources into a list in the order their animals act, leaving out the dead and
+     * bringing the timed species up to date.
+     */
+    private void merge(List<Animal> into) {
+        int count = sources.size();
+        Arrays.fill(heads, 0, count, 0);
+        while (true) {
+            int best = -1;
+            long bestOrder = Long.MAX_VALUE;
+            for (int s = 0; s < count; s++) {
+                List<Animal> source = sources.get(s);
+                if (heads[s] < source.size()) {
+                    long order = orderOf[source.get(heads[s]).getSlot()];
+                    if (order < bestOrder) {
+                        best = s;
+                        bestOrder = order;
+                    }
+                }
+            }
+            if (best < 0) {
+                return;
+            }
+            Animal animal = sources.get(best).get(heads[best]++);
+            if (animal.isAlive()) {
+                if (TIMED_SPECIES[animal.getSpecies().getCode()]) {
+                    catchUp(animal);
+                }
+                into.add(animal);
+            }
+        }
+    }
+
+    /**
+     * Drop the dead from a roster, keeping the order of the rest, and hand them back for reuse.
+     */
+    private static void dropDead(ArrayList<Animal> roster) {
+        int size = roster.size();
+        int kept = 0;
+        for (int i = 0; i < size; i++) {
+            Animal animal = roster.get(i);
+            if (animal.isAlive()) {
+                roster.set(kept++, animal);
+            }
+            else {
+                animal.recycle();
+            }
+        }
+        if (kept < size) {
+            roster.subList(kept, size).clear();
+        }
+    }
+
+    /**
+     * Build the table of the kind of each species' turn at each time of day in each weather.
+     * It follows what the animals' turns do, as chosen by Simulator.
+     */
+    private static Kind[][][] kinds() {
+        Kind[][][] kinds = new Kind[TimeOfDay.values().length][Weather.values().length][Species.CODE_COUNT];
+        for (TimeOfDay timeOfDay : TimeOfDay.values()) {
+            for (Weather weather : Weather.values()) {
+                Kind[] bySpecies = kinds[timeOfDay.ordinal()][weather.ordinal()];
+                Arrays.fill(bySpecies, Kind.ACTIVE);
+                if (timeOfDay == TimeOfDay.NIGHT && weather == Weather.WARM_WATERS) {
+                    // Shark.nightAct
+                    bySpecies[Species.SHARK.getCode()] = Kind.TIMED;
+                }
+                if (timeOfDay == TimeOfDay.NIGHT && weather == Weather.STRONG_CURRENTS) {
+                    // Prey.strongCurrentsAct, which neither fish overrides
+                    bySpecies[Species.SMALL_FISH.getCode()] = Kind.IDLE;
+                    bySpecies[Species.HELPER_FISH.getCode()] = Kind.IDLE;
+                }
+            }
+        }
+        return kinds;
+    }
+
+    /**
+     * @return Whether each species takes a timed turn at any time of day in any weather.
+     * @throws IllegalStateException if one that does is not a TimedAnimal.
+     */
+    private static boolean[] timedSpecies() {
+        boolean[] timed = new boolean[Species.CODE_COUNT];
+        for (Kind[][] byWeather : KINDS) {
+            for (Kind[] bySpecies : byWeather) {
+                for (int code = 0; code < bySpecies.length; code++) {
+                    timed[code] |= bySpecies[code] == Kind.TIMED;
+                }
+            }
+        }
+        for (Species species : Species.values()) {
+            if (timed[species.getCode()] && !TimedAnimal.class.isAssignableFrom(species.getEntityClass())) {
+                throw new IllegalStateException(species + " is given timed turns, but "
+                        + species.getEntityClass().getName() + " is not a TimedAnimal");
+            }
+        }
+        return timed;
+    }
+}
@@ -0,0 +1,17 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * A weather schedule that picks every weather with the same chance each time it changes,
+ * whatever the weather was before.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public class UniformWeather implements WeatherSchedule {
+    private static final Weather[] WEATHERS = Weather.values();
+
+    @Override
+    public Weather next(Weather current, RandomGenerator rand) {
+        return WEATHERS[rand.nextInt(WEATHERS.length)];
+    }
+}
@@ -1,37 +1,51 @@
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Random;
+import java.util.Locale;
 
 /**
- *Sets the possible weather conditions and retrieves a random weather condition
+ * The weather conditions of the sea. At night each one makes the animals act differently;
+ * during the day they all act the same whatever the weather.
+ *
  * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
  * @version 2022.03.01
  */
-public class Weather {
+public enum Weather {
+    // hunger or health decreases
+    COLD_WATERS("Cold waters"),
+    // animals act normally
+    WARM_WATERS("Warm waters"),
+    // all animals stay in the same location
+    STRONG_CURRENTS("Strong currents");
 
-    Map<Integer, String> weatherDict = new HashMap<>();
-    String weather;
+    // The name shown on screen and saved in checkpoints and journals.
+    private final String description;
 
+    Weather(String description) {
+        this.description = description;
+    }
 
     /**
-     * Sets the weather condition as the value, alongside a key.
-     * @param num The key for the weather dictionary.
-     * @param weatherCondition The available types of weather conditions
+     * @return The name of the weather as shown on screen.
      */
-    public void setWeather(int num, String weatherCondition) {
-        weatherDict.put(num, weatherCondition);
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String toString() {
+        return description;
     }
 
     /**
-     * Generates a random number and retrieves the weather condition value it is associated with.
-     * @return current weather
+     * Find the weather with the given name, either as shown on screen or as the constant is called.
+     * @param name The name, such as "Cold waters" or "COLD_WATERS".
+     * @return The weather.
+     * @throws IllegalArgumentException if no weather has that name.
      */
-    public String getWeather() {
-        Random rand = new Random();
-        int randNum = rand.nextInt(3)+1;
-        weather = weatherDict.get(randNum);
-        return weather;
+    public static Weather fromDescription(String name) {
+        for (Weather weather : values()) {
+            if (weather.description.equalsIgnoreCase(name) || weather.name().equals(name.toUpperCase(Locale.ROOT))) {
+                return weather;
+            }
+        }
+        throw new IllegalArgumentException("Unknown weather \"" + name + "\"");
     }
-
-
 }
@@ -0,0 +1,66 @@
+import java.util.random.RandomGenerator;
+
+/**
+ * Decides what the weather turns into each time it changes. A schedule keeps nothing of its
+ * own from one change to the next: everything it goes on is the weather before the change and
+ * the random numbers it is given, so one schedule can be shared by any number of simulations
+ * and a simulation's weather is the same every time it is run with the same seed.
+ *
+ * @author Alexandra Encarnacion k21016552 and Charlotte Hoi Yi Leong k21062990
+ * @version 2022.03.01
+ */
+public interface WeatherSchedule {
+    /**
+     * Pick the next weather.
+     * @param current The weather before the change, or null for the first weather of a run.
+     * @param rand The stream to draw from.
+     * @return The next weather.
+     */
+    Weather next(Weather current, RandomGenerator rand);
+
+    /**
+     * Make a schedule from a description in the population base statistics:
+     * "uniform" to pick every weather with the same chance, "fixed:WEATHER" to keep one weather
+     * for the whole run, and "markov:P P P; P P P; P P P" for a Markov chain, where row i gives the
+     * chances of changing from the i-th weather to each weather, in the order of Weather.values().
+     * The chances are separated by spaces rather than commas so that a schedule can be one of
+     * the values given to BatchRunner's --vary.
+     *
+     * @param description The description.
+     * @return The schedule.
+     * @throws IllegalArgumentException if the description is not one of these.
+     */
+    static WeatherSchedule parse(String description) {
+        String[] parts = description.trim().split(":", 2);
+        switch (parts[0].trim()) {
+            case "uniform":
+                if (parts.length == 1) {
+                    return new UniformWeather();
+                }
+                break;
+            case "fixed":
+                if (parts.length == 2) {
+                    return new FixedWeather(Weather.fromDescription(parts[1].trim()));
+                }
+                break;
+            case "markov":
+                if (parts.length == 2) {
+                    String[] rows = parts[1].split(";");
+                    double[][] transitions = new double[rows.length][];
+                    for (int i = 0; i < rows.length; i++) {
+                        String[] cells = rows[i].trim().split("\\s+");
+                        transitions[i] = new double[cells.length];
+                        for (int j = 0; j < cells.length; j++) {
+                            transitions[i][j] = Double.parseDouble(cells[j].trim());
+                        }
+                    }
+                    return new MarkovWeather(transitions);
+                }
+                break;
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Unknown weather schedule \"" + description
+                + "\"; expected uniform, fixed:WEATHER or markov:P P P; P P P; P P P");
+    }
+}
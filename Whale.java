@@ -1,6 +1,4 @@
-import java.util.Iterator;
 import java.util.List;
-import java.util.Random;
 
 /**
  * Whales are a neutral class that are classified as neither predator nor prey
@@ -11,25 +9,35 @@ import java.util.Random;
  */
 public class Whale extends Animal{
 
-    private int diseaseCounter; // number of time units gone without contact with a helper fish
-    private final int MAX_AGE = getBaseValue("whaleMaxAge");
-    public final int MAX_LITTER = getBaseValue("whaleMaxLitterSize");
-
-    protected static Random rand = Randomizer.getRandom();
-
-
     /**
      * Create an instance of Whale as a newborn (age zero and not hungry)
      *
+     * @param profile The characteristics shared by all whales
      * @param field The field it exists on
-     * @param location The current location in the field
+     * @param cell The index of its cell in the field
      */
-    public Whale(Field field, Location location){
-        super(field, location);
-        diseaseCounter = 0;
+    public Whale(SpeciesProfile profile, Field field, int cell){
+        super(profile, field, cell);
         setAge(0);
     }
 
+    /**
+     * Create a newborn whale, reusing a dead one kept by the field's population store if there is one.
+     *
+     * @param profile The characteristics shared by all whales.
+     * @param field The field the whale is born on.
+     * @param cell The index of its cell within the field.
+     * @return The newborn whale.
+     */
+    public static Whale newborn(SpeciesProfile profile, Field field, int cell) {
+        Whale young = (Whale) field.getPopulation().reuse(Species.WHALE);
+        if(young == null) {
+            return new Whale(profile, field, cell);
+        }
+        young.reborn(cell);
+        return young;
+    }
+
     /**
      * This is the default method for what each whale does in a time unit, allowing it to mate and age
      * @param newWhale a list to return newly born whales
@@ -39,9 +47,9 @@ public class Whale extends Animal{
         incrementAge();
         incrementDisease();
         findMate(newWhale);
-        Location newLocation = getField().freeAdjacentLocation(getLocation());
-        if(newLocation != null){
-            setLocation(newLocation);
+        int newCell = getField().freeAdjacentCell(getCell());
+        if(newCell >= 0){
+            setCell(newCell);
         } // if there are no free locations, it will remain in the same position (whales are okay with being stagnant! )
 
     }
@@ -54,9 +62,9 @@ public class Whale extends Animal{
         incrementAge();
         if (isAlive()) {
             findMate(newWhale);
-            Location newLocation = getField().freeAdjacentLocation(getLocation());
-            if (newLocation != null) {
-                setLocation(newLocation);
+            int newCell = getField().freeAdjacentCell(getCell());
+            if (newCell >= 0) {
+                setCell(newCell);
             } else {
                 // Overcrowding.
                 setDead();
@@ -74,9 +82,9 @@ public class Whale extends Animal{
         incrementDisease();
         incrementAge();
         if (isAlive()) {
-            Location newLocation = getField().freeAdjacentLocation(getLocation());
-            if(newLocation != null){
-                setLocation(newLocation);
+            int newCell = getField().freeAdjacentCell(getCell());
+            if(newCell >= 0){
+                setCell(newCell);
             } // if there are no free locations, it will remain in the same position (whales are okay with being stagnant! )
         }
     }
@@ -88,9 +96,9 @@ public class Whale extends Animal{
     public void strongCurrentsAct(List<Animal> newWhale) {
         incrementDisease();
         if (isAlive()) {
-            Location newLocation = getField().freeAdjacentLocation(getLocation());
-            if(newLocation != null){
-                setLocation(newLocation);
+            int newCell = getField().freeAdjacentCell(getCell());
+            if(newCell >= 0){
+                setCell(newCell);
             } // if there are no free locations, it will remain in the same position (whales are okay with being stagnant! )
 
         }
@@ -101,7 +109,7 @@ public class Whale extends Animal{
      * If the whale meets the maximum age limit, it will be marked as dead
      */
     public void incrementAge(){
-        if(getAge() <= MAX_AGE){
+        if(getAge() <= profile.getMaxAge()){
             setAge(getAge()+1);
         }
         else{
@@ -115,19 +123,15 @@ public class Whale extends Animal{
      * If the disease counter surpasses the limit, the whale will be marked as diseased
      */
     public void incrementDisease(){
-        Field field = getField();
-        Iterator<Location> it = field.adjacentLocations(getLocation()).iterator();
-
-        while(it.hasNext()) {
-            Location where = it.next();
-            Object animal = field.getObjectAt(where);
-            if(animal instanceof HelperFish && ((HelperFish) animal).isAlive()) {
-                diseaseCounter = 0; //resets the disease counter
-                return;
-            }
+        // only living animals are left in the field, so any helper fish next to the whale will do
+        if(getField().hasAdjacentMatching(getCell(), Species.HELPER_FISH.mask())) {
+            getPopulation().setDiseaseCounter(getSlot(), 0); //resets the disease counter
+            return;
         }
-        diseaseCounter++;
-        if(diseaseCounter >= getBaseValue("whaleDiseaseLimit")){
+        // number of time units gone without contact with a helper fish
+        int diseaseCounter = getPopulation().getDiseaseCounter(getSlot()) + 1;
+        getPopulation().setDiseaseCounter(getSlot(), diseaseCounter);
+        if(diseaseCounter >= profile.getDiseaseLimit()){
             setIsDiseased(true);
         }
     }
@@ -140,20 +144,19 @@ public class Whale extends Animal{
      */
     protected void findMate(List<Animal> newWhale) {
         Field field = getField();
-        List<Location> adjacent = field.adjacentLocations(getLocation());
-        List<Location> free = field.getFreeAdjacentLocations(getLocation());
-        Iterator<Location> it = adjacent.iterator();
-
-        while (it.hasNext()) {
-            Location where = it.next();
-            Object animal = field.getObjectAt(where);
-            if (animal instanceof Whale) {
-                Whale mate = (Whale) animal;
-                if (mate.isAlive() && mate.getAge()>getBaseValue("whaleBreedingAge")) {
-                    int births = rand.nextInt(MAX_LITTER) + 1;
-                    for (int b = 0; b < births && free.size() > 0; b++) {
-                        Location loc = free.remove(0);
-                        Whale young = new Whale(field, loc);
+        int[] adjacent = getAdjacentBuffer();
+        int[] free = getFreeBuffer();
+        int count = field.adjacentCells(getCell(), adjacent);
+        int freeCount = field.freeAdjacentCells(getCell(), free);
+
+        for (int i = 0; i < count; i++) {
+            if (field.getCodeAt(adjacent[i]) == getSpecies().getCode()) {
+                Animal mate = (Animal) field.getObjectAt(adjacent[i]);
+                if (mate.isAlive() && mate.getAge()>profile.getBreedingAge()) {
+                    int births = Randomizer.getRandom().nextInt(profile.getMaxLitterSize()) + 1;
+                    for (int b = 0; b < births && b < freeCount; b++) {
+                        int loc = free[b];
+                        Whale young = Whale.newborn(profile, field, loc);
                         newWhale.add(young);
 
                     }